@@ -0,0 +1,33 @@
+package org.lperilla.framework.core.action;
+
+import java.awt.event.ActionListener;
+
+import org.lperilla.framework.core.exceptions.IllegalUserActionException;
+
+/**
+ * Notifies the pre and post action listeners registered in the
+ * {@link ActionRouter} for a command class, compiled into the chain of the
+ * commands of that class.
+ */
+final class ActionListenerInterceptor implements CommandInterceptor {
+
+	private final ActionListener[] preListeners;
+
+	private final ActionListener[] postListeners;
+
+	ActionListenerInterceptor(ActionListener[] preListeners, ActionListener[] postListeners) {
+		this.preListeners = preListeners;
+		this.postListeners = postListeners;
+	}
+
+	public void intercept(CommandInvocation invocation) throws IllegalUserActionException {
+		for (ActionListener listener : preListeners) {
+			listener.actionPerformed(invocation.getEvent());
+		}
+		invocation.proceed();
+		for (ActionListener listener : postListeners) {
+			listener.actionPerformed(invocation.getEvent());
+		}
+	}
+
+}
@@ -0,0 +1,214 @@
+package org.lperilla.framework.core.action;
+
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Records the {@link ActionEvent}s dispatched by the {@link ActionRouter} in a
+ * compact, append-only binary file written through a memory mapped buffer.
+ * The file can be fed back to the router with {@link ActionReplayer}.
+ * <p>
+ * Each record holds the dispatch offset relative to the start of the
+ * recording, the event timestamp, id, modifiers, action command, an id of the
+ * event source and the time spent by every {@link Command} that handled it.
+ * The records are followed by a zero length and the unused, zero filled, rest
+ * of the last mapped region.
+ *
+ * @author lperilla
+ *
+ */
+public final class ActionRecorder implements Closeable {
+
+	/** "AREC" */
+	static final int MAGIC = 0x41524543;
+
+	static final short VERSION = 1;
+
+	static final int HEADER_SIZE = 4 + 2 + 8;
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final int DEFAULT_REGION_SIZE = 1 << 20;
+
+	private static final int MAX_STRING_BYTES = 0xFFFF;
+
+	private final File file;
+
+	private final RandomAccessFile randomAccessFile;
+
+	private final FileChannel channel;
+
+	private final int regionSize;
+
+	private final long baseNanos;
+
+	private MappedByteBuffer buffer;
+
+	private long regionStart;
+
+	private long recordCount;
+
+	private boolean closed;
+
+	/**
+	 * Creates a new recording in <code>file</code>, replacing any previous
+	 * content.
+	 *
+	 * @param file
+	 *            the file to write
+	 * @throws IOException
+	 *             if the file can not be created or mapped
+	 */
+	public ActionRecorder(File file) throws IOException {
+		this(file, DEFAULT_REGION_SIZE);
+	}
+
+	/**
+	 * Creates a new recording in <code>file</code>, mapping it in regions of
+	 * <code>regionSize</code> bytes.
+	 *
+	 * @param file
+	 *            the file to write
+	 * @param regionSize
+	 *            the number of bytes mapped at a time
+	 * @throws IOException
+	 *             if the file can not be created or mapped
+	 */
+	public ActionRecorder(File file, int regionSize) throws IOException {
+		if (regionSize < HEADER_SIZE) {
+			throw new IllegalArgumentException("regionSize must be at least " + HEADER_SIZE);
+		}
+		this.file = file;
+		this.regionSize = regionSize;
+		this.randomAccessFile = new RandomAccessFile(file, "rw");
+		this.channel = randomAccessFile.getChannel();
+		this.channel.truncate(0);
+		this.baseNanos = System.nanoTime();
+		this.map(0, regionSize);
+
+		this.buffer.putInt(MAGIC);
+		this.buffer.putShort(VERSION);
+		this.buffer.putLong(System.currentTimeMillis());
+	}
+
+	/**
+	 * Appends one dispatched event to the recording.
+	 *
+	 * @param e
+	 *            the dispatched event
+	 * @param startNanos
+	 *            the {@link System#nanoTime()} when the dispatch started
+	 * @param durations
+	 *            the time in nanoseconds spent by each command
+	 * @param count
+	 *            the number of valid entries in <code>durations</code>
+	 * @throws IllegalStateException
+	 *             if the file can not be extended to hold the record
+	 */
+	public synchronized void record(ActionEvent e, long startNanos, long[] durations, int count) {
+		if (closed) {
+			return;
+		}
+		byte[] command = encode(e.getActionCommand());
+		byte[] source = encode(sourceId(e.getSource()));
+		int length = 8 + 8 + 4 + 4 + 2 + command.length + 2 + source.length + 2 + 8 * count;
+		try {
+			// keep room for the zero length after the record that marks the
+			// end of the recording
+			ensureCapacity(4 + length + 4);
+		} catch (IOException err) {
+			throw new IllegalStateException("Could not extend recording " + file, err);
+		}
+		buffer.putInt(length);
+		buffer.putLong(startNanos - baseNanos);
+		buffer.putLong(e.getWhen());
+		buffer.putInt(e.getID());
+		buffer.putInt(e.getModifiers());
+		buffer.putShort((short) command.length);
+		buffer.put(command);
+		buffer.putShort((short) source.length);
+		buffer.put(source);
+		buffer.putShort((short) count);
+		for (int index = 0; index < count; index++) {
+			buffer.putLong(durations[index]);
+		}
+		recordCount++;
+	}
+
+	/**
+	 * Returns the number of events recorded so far.
+	 */
+	public synchronized long getRecordCount() {
+		return recordCount;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Flushes the mapped buffer and closes the file. The file is not trimmed:
+	 * it can not be truncated while mapped on every platform, and the
+	 * zero length following the last record marks the end of the recording.
+	 */
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		buffer.force();
+		buffer = null;
+		randomAccessFile.close();
+	}
+
+	private void ensureCapacity(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			buffer.force();
+			map(regionStart + buffer.position(), Math.max(regionSize, bytes));
+		}
+	}
+
+	private void map(long start, int size) throws IOException {
+		this.regionStart = start;
+		this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+	}
+
+	private static byte[] encode(String value) {
+		if (value == null) {
+			return new byte[0];
+		}
+		byte[] bytes = value.getBytes(UTF8);
+		if (bytes.length > MAX_STRING_BYTES) {
+			int length = MAX_STRING_BYTES;
+			// never cut a multi-byte sequence, back up to the byte starting it
+			while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+				length--;
+			}
+			byte[] truncated = new byte[length];
+			System.arraycopy(bytes, 0, truncated, 0, length);
+			return truncated;
+		}
+		return bytes;
+	}
+
+	private static String sourceId(Object source) {
+		if (source instanceof Component) {
+			String name = ((Component) source).getName();
+			if (name != null) {
+				return name;
+			}
+		}
+		if (source instanceof String) {
+			return (String) source;
+		}
+		return source == null ? null : source.getClass().getName();
+	}
+
+}
@@ -0,0 +1,209 @@
+package org.lperilla.framework.core.action;
+
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reads a recording written by {@link ActionRecorder} and feeds it back
+ * through {@link ActionRouter#doActionNow(ActionEvent)}, either respecting the
+ * recorded spacing between events or as fast as possible. Useful as a load
+ * generator and as a regression benchmark for the registered commands.
+ *
+ * @author lperilla
+ *
+ */
+public final class ActionReplayer {
+
+	private static final Logger logger = LogManager.getLogger(ActionReplayer.class);
+
+	private final long recordedAt;
+
+	private final List<RecordedAction> actions;
+
+	/**
+	 * Loads the recording stored in <code>file</code>.
+	 *
+	 * @param file
+	 *            a file written by {@link ActionRecorder}
+	 * @throws IOException
+	 *             if the file can not be read or is not a recording
+	 */
+	public ActionReplayer(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < ActionRecorder.HEADER_SIZE || buffer.getInt() != ActionRecorder.MAGIC) {
+				throw new IOException("Not an action recording: " + file);
+			}
+			short version = buffer.getShort();
+			if (version != ActionRecorder.VERSION) {
+				throw new IOException("Unsupported recording version " + version + ": " + file);
+			}
+			this.recordedAt = buffer.getLong();
+			this.actions = Collections.unmodifiableList(readActions(buffer));
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Dispatches every recorded event through <code>router</code> in the
+	 * calling thread.
+	 *
+	 * @param router
+	 *            the router to feed
+	 * @param recordedSpeed
+	 *            <code>true</code> to wait between events as they were
+	 *            recorded, <code>false</code> to replay at maximum speed
+	 * @return the time in nanoseconds spent replaying
+	 * @throws InterruptedException
+	 *             if the thread is interrupted while waiting between events
+	 */
+	public long replay(ActionRouter router, boolean recordedSpeed) throws InterruptedException {
+		long start = System.nanoTime();
+		long firstOffset = actions.isEmpty() ? 0L : actions.get(0).getOffsetNanos();
+		for (RecordedAction action : actions) {
+			if (recordedSpeed) {
+				long wait = (action.getOffsetNanos() - firstOffset) - (System.nanoTime() - start);
+				if (wait > 0) {
+					Thread.sleep(wait / 1000000L, (int) (wait % 1000000L));
+				}
+			}
+			router.doActionNow(action.toActionEvent());
+		}
+		long elapsed = System.nanoTime() - start;
+		logger.debug("Replayed " + actions.size() + " actions in " + (elapsed / 1000000L) + " ms");
+		return elapsed;
+	}
+
+	/**
+	 * Returns the wall clock time, in milliseconds, when the recording started.
+	 */
+	public long getRecordedAt() {
+		return recordedAt;
+	}
+
+	public List<RecordedAction> getActions() {
+		return actions;
+	}
+
+	private static List<RecordedAction> readActions(MappedByteBuffer buffer) throws IOException {
+		List<RecordedAction> list = new ArrayList<RecordedAction>();
+		while (buffer.remaining() >= 4) {
+			int length = buffer.getInt();
+			if (length == 0) {
+				break;
+			}
+			if (length < 0 || length > buffer.remaining()) {
+				throw new IOException("Truncated recording at offset " + (buffer.position() - 4));
+			}
+			long offsetNanos = buffer.getLong();
+			long when = buffer.getLong();
+			int id = buffer.getInt();
+			int modifiers = buffer.getInt();
+			String command = readString(buffer);
+			String source = readString(buffer);
+			long[] durations = new long[buffer.getShort() & 0xFFFF];
+			for (int index = 0; index < durations.length; index++) {
+				durations[index] = buffer.getLong();
+			}
+			list.add(new RecordedAction(offsetNanos, when, id, modifiers, command, source, durations));
+		}
+		return list;
+	}
+
+	private static String readString(MappedByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+		buffer.get(bytes);
+		return new String(bytes, ActionRecorder.UTF8);
+	}
+
+	/**
+	 * One event read from a recording.
+	 */
+	public static final class RecordedAction {
+
+		private final long offsetNanos;
+
+		private final long when;
+
+		private final int id;
+
+		private final int modifiers;
+
+		private final String actionCommand;
+
+		private final String sourceId;
+
+		private final long[] durations;
+
+		RecordedAction(long offsetNanos, long when, int id, int modifiers, String actionCommand, String sourceId, long[] durations) {
+			this.offsetNanos = offsetNanos;
+			this.when = when;
+			this.id = id;
+			this.modifiers = modifiers;
+			this.actionCommand = actionCommand;
+			this.sourceId = sourceId;
+			this.durations = durations;
+		}
+
+		/**
+		 * Builds an event equivalent to the recorded one, the source is the
+		 * recorded source id.
+		 */
+		public ActionEvent toActionEvent() {
+			return new ActionEvent(sourceId, id, actionCommand, when, modifiers);
+		}
+
+		/**
+		 * Returns the total time in nanoseconds spent by the commands.
+		 */
+		public long getTotalNanos() {
+			long total = 0L;
+			for (long duration : durations) {
+				total += duration;
+			}
+			return total;
+		}
+
+		public long getOffsetNanos() {
+			return offsetNanos;
+		}
+
+		public long getWhen() {
+			return when;
+		}
+
+		public int getId() {
+			return id;
+		}
+
+		public int getModifiers() {
+			return modifiers;
+		}
+
+		public String getActionCommand() {
+			return actionCommand;
+		}
+
+		public String getSourceId() {
+			return sourceId;
+		}
+
+		public long[] getDurations() {
+			return durations.clone();
+		}
+	}
+
+}
@@ -3,16 +3,20 @@ package org.lperilla.framework.core.action;
 import java.awt.HeadlessException;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import javax.swing.SwingUtilities;
-
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.lperilla.framework.core.action.remote.CommandTransport;
+import org.lperilla.framework.core.action.remote.RemoteCommand;
 import org.lperilla.framework.core.exceptions.IllegalUserActionException;
 import org.lperilla.framework.core.reflect.ClassFinder;
 
@@ -24,52 +28,92 @@ public final class ActionRouter implements ActionListener {
 
 	private static volatile ActionRouter instance;
 
-	private Map<String, Set<Command>> commands;
+	private final Map<String, Set<Command>> commands = new HashMap<String, Set<Command>>();
+
+	// read-only copy of commands, replaced together with commandChains
+	private volatile Map<String, Set<Command>> commandsView = Collections.emptyMap();
 
 	private final Map<String, HashSet<ActionListener>> preActionListeners = new HashMap<String, HashSet<ActionListener>>();
 
 	private final Map<String, HashSet<ActionListener>> postActionListeners = new HashMap<String, HashSet<ActionListener>>();
 
+	private final List<CommandInterceptor> interceptors = new ArrayList<CommandInterceptor>();
+
+	private final Map<String, List<CommandInterceptor>> actionInterceptors = new HashMap<String, List<CommandInterceptor>>();
+
+	// compiled from the maps above, replaced as a whole when any of them changes
+	private volatile Map<String, CommandChain[]> commandChains = Collections.emptyMap();
+
+	private final DispatchQueue dispatchQueue = new DispatchQueue(this);
+
+	private volatile ActionRecorder recorder;
+
+	private volatile UserActionErrorHandler userActionErrorHandler = new UserActionErrorCounter();
+
 	private ActionRouter() {
-		this.setCommands(new HashMap<String, Set<Command>>());
 	}
 
+	/**
+	 * Queues the action to be executed on the EDT, subject to the limits of
+	 * the {@link #getDispatchQueue() dispatch queue}.
+	 */
 	public void actionPerformed(final ActionEvent e) {
-		SwingUtilities.invokeLater(new Runnable() {
-			public void run() {
-				performAction(e);
-			}
-		});
+		if (!dispatchQueue.offer(e) && logger.isDebugEnabled()) {
+			logger.debug("Action rejected by the dispatch queue: " + e.getActionCommand());
+		}
 	}
 
 	private void performAction(final ActionEvent e) {
 		String actionCommand = e.getActionCommand();
 		logger.debug("Ejecutando acción: " + actionCommand);
-		try {
-			for (Command command : getCommands().get(actionCommand)) {
+		ActionRecorder currentRecorder = this.recorder;
+		long start = currentRecorder == null ? 0L : System.nanoTime();
+		long[] durations = null;
+		int count = 0;
+		CommandChain[] chains = commandChains.get(actionCommand);
+		if (chains == null) {
+			logger.error("performAction(" + actionCommand + ") " + e.toString() + ": no command registered");
+		} else {
+			if (currentRecorder != null) {
+				durations = new long[chains.length];
+			}
+			for (CommandChain chain : chains) {
+				long commandStart = durations == null ? 0L : System.nanoTime();
 				try {
-					preActionPerformed(command.getClass(), e);
-					command.doAction(e);
-					postActionPerformed(command.getClass(), e);
+					chain.execute(e);
 				} catch (IllegalUserActionException err) {
-					String msg = err.getMessage();
-					if (msg == null) {
-						msg = err.toString();
-					}
-					Throwable t = err.getCause();
-					if (t != null) {
-						String cause = t.getMessage();
-						if (cause == null) {
-							cause = t.toString();
-						}
-						msg = msg + "\n" + cause;
-					}
+					userActionRejected(chain.getCommand(), e, err);
 				} catch (Exception err) {
-					logger.error("Error processing " + command.toString(), err);
+					logger.error("Error processing " + chain.getCommand().toString(), err);
+				}
+				if (durations != null) {
+					durations[count++] = System.nanoTime() - commandStart;
 				}
 			}
-		} catch (NullPointerException er) {
-			logger.error("performAction(" + actionCommand + ") " + e.toString() + " caused", er);
+		}
+		if (currentRecorder != null) {
+			try {
+				currentRecorder.record(e, start, durations == null ? new long[0] : durations, count);
+			} catch (RuntimeException err) {
+				// the commands already ran, only the recording is lost
+				logger.error("Error recording " + actionCommand + ", recording stopped", err);
+				synchronized (this) {
+					if (this.recorder == currentRecorder) {
+						this.recorder = null;
+					}
+				}
+			}
+		}
+	}
+
+	private void userActionRejected(Command command, ActionEvent e, IllegalUserActionException err) {
+		UserActionErrorHandler handler = this.userActionErrorHandler;
+		if (handler != null) {
+			try {
+				handler.actionRejected(command, e, err);
+			} catch (RuntimeException handlerError) {
+				logger.error("Error handling the rejection of " + e.getActionCommand(), handlerError);
+			}
 		}
 	}
 
@@ -83,6 +127,50 @@ public final class ActionRouter implements ActionListener {
 		performAction(e);
 	}
 
+	/**
+	 * Returns the queue holding the actions received by
+	 * {@link #actionPerformed(ActionEvent)}, to configure its capacity and
+	 * rate limits or read its depth and rejection counts.
+	 */
+	public DispatchQueue getDispatchQueue() {
+		return dispatchQueue;
+	}
+
+	/**
+	 * Starts recording every dispatched action in <code>recorder</code>, or
+	 * stops recording when <code>null</code>. The previous recorder, if any, is
+	 * not closed. A recorder that fails to write is detached, without being
+	 * closed, and dispatching goes on.
+	 *
+	 * @param recorder
+	 *            the recorder to use
+	 */
+	public void setActionRecorder(ActionRecorder recorder) {
+		synchronized (this) {
+			this.recorder = recorder;
+		}
+	}
+
+	public ActionRecorder getActionRecorder() {
+		return recorder;
+	}
+
+	/**
+	 * Sets the handler receiving the {@link IllegalUserActionException}s
+	 * thrown by the commands, <code>null</code> to ignore them. By default a
+	 * {@link UserActionErrorCounter} is used.
+	 *
+	 * @param handler
+	 *            the handler to use
+	 */
+	public void setUserActionErrorHandler(UserActionErrorHandler handler) {
+		this.userActionErrorHandler = handler;
+	}
+
+	public UserActionErrorHandler getUserActionErrorHandler() {
+		return userActionErrorHandler;
+	}
+
 	/**
 	 * Get the set of {@link Command}s registered under the name
 	 * <code>actionName</code>
@@ -144,6 +232,225 @@ public final class ActionRouter implements ActionListener {
 		return null;
 	}
 
+	/**
+	 * Binds <code>actionName</code> to a remote executor, the actions are
+	 * forwarded through <code>transport</code> in addition to the local
+	 * {@link Command}s registered under the same name, if any. Remote
+	 * rejections are reported to the {@link UserActionErrorHandler} of this
+	 * router.
+	 *
+	 * @param actionName
+	 *            The name of the action to forward
+	 * @param transport
+	 *            The transport used to reach the remote executor
+	 * @return the {@link RemoteCommand} registered for <code>actionName</code>
+	 */
+	public RemoteCommand bindRemote(String actionName, CommandTransport transport) {
+		RemoteCommand command = new RemoteCommand(actionName, transport);
+		command.setUserActionErrorHandler(new UserActionErrorHandler() {
+			public void actionRejected(Command remoteCommand, ActionEvent e, IllegalUserActionException err) {
+				userActionRejected(remoteCommand, e, err);
+			}
+		});
+		addCommand(actionName, command);
+		return command;
+	}
+
+	/**
+	 * Removes every {@link RemoteCommand} bound to <code>actionName</code>. The
+	 * transports are not closed.
+	 *
+	 * @param actionName
+	 *            The name of the action
+	 */
+	public void unbindRemote(String actionName) {
+		synchronized (this) {
+			Set<Command> commandObjects = commands.get(actionName);
+			if (commandObjects != null) {
+				for (Iterator<Command> iterator = commandObjects.iterator(); iterator.hasNext();) {
+					if (iterator.next() instanceof RemoteCommand) {
+						iterator.remove();
+					}
+				}
+				if (commandObjects.isEmpty()) {
+					commands.remove(actionName);
+				}
+				refreshCommandChains();
+			}
+		}
+	}
+
+	/**
+	 * Registers <code>command</code> under <code>actionName</code>.
+	 *
+	 * @param actionName
+	 *            The name of the action
+	 * @param command
+	 *            The command to execute for the action
+	 */
+	public void addCommand(String actionName, Command command) {
+		synchronized (this) {
+			Set<Command> commandObjects = commands.get(actionName);
+			if (commandObjects == null) {
+				commandObjects = new HashSet<Command>();
+				commands.put(actionName, commandObjects);
+			}
+			commandObjects.add(command);
+			refreshCommandChains();
+		}
+	}
+
+	/**
+	 * Removes <code>command</code> from the commands registered under
+	 * <code>actionName</code>.
+	 *
+	 * @param actionName
+	 *            The name of the action
+	 * @param command
+	 *            The command to remove
+	 * @return <code>true</code> if the command was registered
+	 */
+	public boolean removeCommand(String actionName, Command command) {
+		synchronized (this) {
+			Set<Command> commandObjects = commands.get(actionName);
+			if (commandObjects == null || !commandObjects.remove(command)) {
+				return false;
+			}
+			if (commandObjects.isEmpty()) {
+				commands.remove(actionName);
+			}
+			refreshCommandChains();
+			return true;
+		}
+	}
+
+	/**
+	 * Adds an interceptor around every {@link Command}. Global interceptors run
+	 * before the interceptors of the action, in registration order.
+	 *
+	 * @param interceptor
+	 *            The interceptor to add
+	 */
+	public void addInterceptor(CommandInterceptor interceptor) {
+		synchronized (this) {
+			interceptors.add(interceptor);
+			refreshCommandChains();
+		}
+	}
+
+	/**
+	 * Removes an interceptor added with
+	 * {@link #addInterceptor(CommandInterceptor)}.
+	 *
+	 * @param interceptor
+	 *            The interceptor to remove
+	 */
+	public void removeInterceptor(CommandInterceptor interceptor) {
+		synchronized (this) {
+			if (interceptors.remove(interceptor)) {
+				refreshCommandChains();
+			}
+		}
+	}
+
+	/**
+	 * Adds an interceptor around the {@link Command}s registered under
+	 * <code>actionName</code>.
+	 *
+	 * @param actionName
+	 *            The name of the action
+	 * @param interceptor
+	 *            The interceptor to add
+	 */
+	public void addInterceptor(String actionName, CommandInterceptor interceptor) {
+		synchronized (this) {
+			List<CommandInterceptor> list = actionInterceptors.get(actionName);
+			if (list == null) {
+				list = new ArrayList<CommandInterceptor>();
+				actionInterceptors.put(actionName, list);
+			}
+			list.add(interceptor);
+			refreshCommandChains();
+		}
+	}
+
+	/**
+	 * Removes an interceptor added with
+	 * {@link #addInterceptor(String, CommandInterceptor)}.
+	 *
+	 * @param actionName
+	 *            The name of the action
+	 * @param interceptor
+	 *            The interceptor to remove
+	 */
+	public void removeInterceptor(String actionName, CommandInterceptor interceptor) {
+		synchronized (this) {
+			List<CommandInterceptor> list = actionInterceptors.get(actionName);
+			if (list != null && list.remove(interceptor)) {
+				if (list.isEmpty()) {
+					actionInterceptors.remove(actionName);
+				}
+				refreshCommandChains();
+			}
+		}
+	}
+
+	/**
+	 * Get the compiled chains executed for <code>actionName</code>, one per
+	 * registered {@link Command}.
+	 *
+	 * @param actionName
+	 *            The name the {@link Command}s were registered
+	 * @return the chains, empty if there is no {@link Command} for
+	 *         <code>actionName</code>
+	 */
+	public List<CommandChain> getCommandChains(String actionName) {
+		CommandChain[] chains = commandChains.get(actionName);
+		if (chains == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(Arrays.asList(chains));
+	}
+
+	/**
+	 * Compiles again the chain of interceptors of every {@link Command}. Called
+	 * by every registration method of this class.
+	 */
+	private void refreshCommandChains() {
+		synchronized (this) {
+			Map<String, CommandChain[]> chains = new HashMap<String, CommandChain[]>(commands.size() * 2);
+			Map<String, Set<Command>> view = new HashMap<String, Set<Command>>(commands.size() * 2);
+			for (Map.Entry<String, Set<Command>> entry : commands.entrySet()) {
+				List<CommandInterceptor> forAction = actionInterceptors.get(entry.getKey());
+				CommandChain[] compiled = new CommandChain[entry.getValue().size()];
+				int index = 0;
+				for (Command command : entry.getValue()) {
+					List<CommandInterceptor> list = new ArrayList<CommandInterceptor>(interceptors);
+					if (forAction != null) {
+						list.addAll(forAction);
+					}
+					ActionListener[] pre = toArray(preActionListeners.get(command.getClass().getName()));
+					ActionListener[] post = toArray(postActionListeners.get(command.getClass().getName()));
+					if (pre.length > 0 || post.length > 0) {
+						list.add(new ActionListenerInterceptor(pre, post));
+					}
+					compiled[index++] = new CommandChain(command, list);
+				}
+				chains.put(entry.getKey(), compiled);
+				view.put(entry.getKey(), Collections.unmodifiableSet(new HashSet<Command>(entry.getValue())));
+			}
+			commandsView = Collections.unmodifiableMap(view);
+			commandChains = chains;
+		}
+	}
+
+	private static ActionListener[] toArray(Set<ActionListener> listenerSet) {
+		if (listenerSet == null) {
+			return new ActionListener[0];
+		}
+		return listenerSet.toArray(new ActionListener[listenerSet.size()]);
+	}
+
 	/**
 	 * Allows an ActionListener to receive notification of a command being
 	 * executed prior to the actual execution of the command.
@@ -157,12 +464,15 @@ public final class ActionRouter implements ActionListener {
 	 */
 	public void addPreActionListener(Class<?> action, ActionListener listener) {
 		if (action != null) {
-			HashSet<ActionListener> set = preActionListeners.get(action.getName());
-			if (set == null) {
-				set = new HashSet<ActionListener>();
+			synchronized (this) {
+				HashSet<ActionListener> set = preActionListeners.get(action.getName());
+				if (set == null) {
+					set = new HashSet<ActionListener>();
+				}
+				set.add(listener);
+				preActionListeners.put(action.getName(), set);
+				refreshCommandChains();
 			}
-			set.add(listener);
-			preActionListeners.put(action.getName(), set);
 		}
 	}
 
@@ -179,10 +489,13 @@ public final class ActionRouter implements ActionListener {
 	 */
 	public void removePreActionListener(Class<?> action, ActionListener listener) {
 		if (action != null) {
-			HashSet<ActionListener> set = preActionListeners.get(action.getName());
-			if (set != null) {
-				set.remove(listener);
-				preActionListeners.put(action.getName(), set);
+			synchronized (this) {
+				HashSet<ActionListener> set = preActionListeners.get(action.getName());
+				if (set != null) {
+					set.remove(listener);
+					preActionListeners.put(action.getName(), set);
+					refreshCommandChains();
+				}
 			}
 		}
 	}
@@ -200,12 +513,15 @@ public final class ActionRouter implements ActionListener {
 	 */
 	public void addPostActionListener(Class<?> action, ActionListener listener) {
 		if (action != null) {
-			HashSet<ActionListener> set = postActionListeners.get(action.getName());
-			if (set == null) {
-				set = new HashSet<ActionListener>();
+			synchronized (this) {
+				HashSet<ActionListener> set = postActionListeners.get(action.getName());
+				if (set == null) {
+					set = new HashSet<ActionListener>();
+				}
+				set.add(listener);
+				postActionListeners.put(action.getName(), set);
+				refreshCommandChains();
 			}
-			set.add(listener);
-			postActionListeners.put(action.getName(), set);
 		}
 	}
 
@@ -222,33 +538,12 @@ public final class ActionRouter implements ActionListener {
 	 */
 	public void removePostActionListener(Class<?> action, ActionListener listener) {
 		if (action != null) {
-			HashSet<ActionListener> set = postActionListeners.get(action.getName());
-			if (set != null) {
-				set.remove(listener);
-				postActionListeners.put(action.getName(), set);
-			}
-		}
-	}
-
-	protected void preActionPerformed(Class<? extends Command> action, ActionEvent e) {
-		if (action != null) {
-			Set<ActionListener> listenerSet = preActionListeners.get(action.getName());
-			if (listenerSet != null && listenerSet.size() > 0) {
-				ActionListener[] listeners = listenerSet.toArray(new ActionListener[listenerSet.size()]);
-				for (ActionListener listener : listeners) {
-					listener.actionPerformed(e);
-				}
-			}
-		}
-	}
-
-	protected void postActionPerformed(Class<? extends Command> action, ActionEvent e) {
-		if (action != null) {
-			Set<ActionListener> listenerSet = postActionListeners.get(action.getName());
-			if (listenerSet != null && listenerSet.size() > 0) {
-				ActionListener[] listeners = listenerSet.toArray(new ActionListener[listenerSet.size()]);
-				for (ActionListener listener : listeners) {
-					listener.actionPerformed(e);
+			synchronized (this) {
+				HashSet<ActionListener> set = postActionListeners.get(action.getName());
+				if (set != null) {
+					set.remove(listener);
+					postActionListeners.put(action.getName(), set);
+					refreshCommandChains();
 				}
 			}
 		}
@@ -257,23 +552,34 @@ public final class ActionRouter implements ActionListener {
 	private void populateCommandMap() {
 		try {
 			List<String> listClasses = ClassFinder.findClassesThatExtend();
-			this.setCommands(new HashMap<String, Set<Command>>(listClasses.size()));
+			Map<String, Set<Command>> found = new HashMap<String, Set<Command>>(listClasses.size());
 			if (listClasses.isEmpty()) {
 				logger.warn("!!!!!Uh-oh, didn't find any action handlers!!!!!");
 			} else {
 				for (String strClassName : listClasses) {
-					Class<?> commandClass = Class.forName(strClassName);
-					Command command = (Command) commandClass.newInstance();
+					Command command;
+					try {
+						Class<?> commandClass = Class.forName(strClassName);
+						command = (Command) commandClass.newInstance();
+					} catch (InstantiationException e) {
+						// commands built with arguments, like RemoteCommand
+						logger.debug("Skipping " + strClassName + ", it has no default constructor");
+						continue;
+					} catch (IllegalAccessException e) {
+						logger.debug("Skipping " + strClassName + ", it is not accessible");
+						continue;
+					}
 					for (String commandName : command.getActionNames()) {
-						Set<Command> commandObjects = this.getCommands().get(commandName);
+						Set<Command> commandObjects = found.get(commandName);
 						if (commandObjects == null) {
 							commandObjects = new HashSet<Command>();
-							getCommands().put(commandName, commandObjects);
+							found.put(commandName, commandObjects);
 						}
 						commandObjects.add(command);
 					}
 				}
 			}
+			setCommands(found);
 		} catch (HeadlessException e) {
 			logger.error(e);
 		} catch (Exception e) {
@@ -298,11 +604,30 @@ public final class ActionRouter implements ActionListener {
 		return instance;
 	}
 
+	/**
+	 * Returns a read-only view of the registered {@link Command}s by action
+	 * name. Use {@link #addCommand(String, Command)},
+	 * {@link #removeCommand(String, Command)} or {@link #setCommands(Map)} to
+	 * change them.
+	 */
 	public Map<String, Set<Command>> getCommands() {
-		return commands;
+		return commandsView;
 	}
 
+	/**
+	 * Replaces every registered {@link Command} with a copy of
+	 * <code>commands</code>; later changes to the map are not seen.
+	 *
+	 * @param commands
+	 *            The commands by action name
+	 */
 	public void setCommands(Map<String, Set<Command>> commands) {
-		this.commands = commands;
+		synchronized (this) {
+			this.commands.clear();
+			for (Map.Entry<String, Set<Command>> entry : commands.entrySet()) {
+				this.commands.put(entry.getKey(), new HashSet<Command>(entry.getValue()));
+			}
+			refreshCommandChains();
+		}
 	}
 }
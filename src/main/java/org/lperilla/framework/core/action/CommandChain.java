@@ -0,0 +1,56 @@
+package org.lperilla.framework.core.action;
+
+import java.awt.event.ActionEvent;
+import java.util.List;
+
+import org.lperilla.framework.core.exceptions.IllegalUserActionException;
+
+/**
+ * A {@link Command} together with the {@link CommandInterceptor}s around it,
+ * compiled by the {@link ActionRouter} when commands or interceptors are
+ * registered, so dispatching an action does not look anything up.
+ *
+ * @author lperilla
+ *
+ */
+public final class CommandChain {
+
+	private final Command command;
+
+	private final CommandInterceptor[] interceptors;
+
+	CommandChain(Command command, List<CommandInterceptor> interceptors) {
+		this.command = command;
+		this.interceptors = interceptors.toArray(new CommandInterceptor[interceptors.size()]);
+	}
+
+	/**
+	 * Runs the interceptors and the command.
+	 *
+	 * @param e
+	 *            the action to execute
+	 * @throws IllegalUserActionException
+	 *             if the action is rejected
+	 */
+	public void execute(ActionEvent e) throws IllegalUserActionException {
+		execute(0, e);
+	}
+
+	void execute(int position, ActionEvent e) throws IllegalUserActionException {
+		if (position < interceptors.length) {
+			interceptors[position].intercept(new CommandInvocation(this, position, e));
+		} else {
+			command.doAction(e);
+		}
+	}
+
+	public Command getCommand() {
+		return command;
+	}
+
+	@Override
+	public String toString() {
+		return command.toString();
+	}
+
+}
@@ -0,0 +1,29 @@
+package org.lperilla.framework.core.action;
+
+import org.lperilla.framework.core.exceptions.IllegalUserActionException;
+
+/**
+ * Middleware around the execution of a {@link Command}. Interceptors are
+ * registered in the {@link ActionRouter}, globally or for one action name,
+ * and compiled into a {@link CommandChain} per command when registered.
+ * <p>
+ * An interceptor continues the chain with {@link CommandInvocation#proceed()}
+ * ; it may also time the rest of the chain, skip it, run it more than once or
+ * run it on another thread.
+ *
+ * @author lperilla
+ *
+ */
+public interface CommandInterceptor {
+
+	/**
+	 * Intercepts the execution of {@link CommandInvocation#getCommand()}.
+	 *
+	 * @param invocation
+	 *            the current step of the chain
+	 * @throws IllegalUserActionException
+	 *             to reject the action
+	 */
+	public void intercept(CommandInvocation invocation) throws IllegalUserActionException;
+
+}
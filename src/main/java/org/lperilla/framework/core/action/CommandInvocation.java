@@ -0,0 +1,47 @@
+package org.lperilla.framework.core.action;
+
+import java.awt.event.ActionEvent;
+
+import org.lperilla.framework.core.exceptions.IllegalUserActionException;
+
+/**
+ * One step of a {@link CommandChain}, handed to a {@link CommandInterceptor}.
+ * Invocations are immutable, so {@link #proceed()} may be called again, or
+ * from another thread.
+ *
+ * @author lperilla
+ *
+ */
+public final class CommandInvocation {
+
+	private final CommandChain chain;
+
+	private final int position;
+
+	private final ActionEvent event;
+
+	CommandInvocation(CommandChain chain, int position, ActionEvent event) {
+		this.chain = chain;
+		this.position = position;
+		this.event = event;
+	}
+
+	/**
+	 * Runs the next interceptors of the chain and the command.
+	 *
+	 * @throws IllegalUserActionException
+	 *             if the action is rejected
+	 */
+	public void proceed() throws IllegalUserActionException {
+		chain.execute(position + 1, event);
+	}
+
+	public Command getCommand() {
+		return chain.getCommand();
+	}
+
+	public ActionEvent getEvent() {
+		return event;
+	}
+
+}
@@ -0,0 +1,387 @@
+package org.lperilla.framework.core.action;
+
+import java.awt.event.ActionEvent;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.swing.SwingUtilities;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Admission control for the actions received by
+ * {@link ActionRouter#actionPerformed(ActionEvent)}. Accepted actions wait in
+ * this queue and are dispatched on the EDT in batches, with a single
+ * {@link SwingUtilities#invokeLater(Runnable)} per batch instead of one per
+ * event.
+ * <p>
+ * Both the whole queue and each action name may have a capacity, with an
+ * {@link OverflowPolicy} applied when it is reached, and a {@link TokenBucket}
+ * rate limit; actions over the rate are rejected. By default the queue is
+ * unbounded and not rate limited. Actions executed with
+ * {@link ActionRouter#doActionNow(ActionEvent)} do not go through the queue.
+ *
+ * @author lperilla
+ *
+ */
+public final class DispatchQueue {
+
+	private static final Logger logger = LogManager.getLogger(DispatchQueue.class);
+
+	/**
+	 * What to do with an action arriving when the queue is full.
+	 */
+	public enum OverflowPolicy {
+		/** Discard the oldest queued action to make room */
+		DROP_OLDEST,
+		/** Reject the arriving action */
+		DROP_NEWEST,
+		/** Wait for room, rejects the action if called on the EDT */
+		BLOCK,
+		/**
+		 * Replace the newest queued action with the same name by the arriving
+		 * one, rejects it if there is none
+		 */
+		COALESCE
+	}
+
+	private final ActionRouter router;
+
+	private final ArrayDeque<Slot> slots = new ArrayDeque<Slot>();
+
+	private final Map<String, ActionQueue> actionQueues = new HashMap<String, ActionQueue>();
+
+	private final Runnable drainTask = new Runnable() {
+		public void run() {
+			drain();
+		}
+	};
+
+	private int capacity = Integer.MAX_VALUE;
+
+	private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+	private TokenBucket rateLimit;
+
+	private int depth;
+
+	private long rejectedCount;
+
+	private long coalescedCount;
+
+	private boolean drainScheduled;
+
+	DispatchQueue(ActionRouter router) {
+		this.router = router;
+	}
+
+	/**
+	 * Queues an action to be dispatched on the EDT.
+	 *
+	 * @param e
+	 *            the action
+	 * @return <code>true</code> if the action was queued or coalesced,
+	 *         <code>false</code> if it was rejected
+	 */
+	public boolean offer(ActionEvent e) {
+		boolean schedule;
+		synchronized (this) {
+			String actionName = e.getActionCommand();
+			ActionQueue actionQueue = getActionQueue(actionName);
+			if ((actionQueue.rateLimit != null && !actionQueue.rateLimit.tryAcquire()) || (rateLimit != null && !rateLimit.tryAcquire())) {
+				reject(actionQueue);
+				return false;
+			}
+			while (true) {
+				// dropping or waiting may have released the queue of an unconfigured name
+				actionQueue = getActionQueue(actionName);
+				boolean actionFull = actionQueue.slots.size() >= actionQueue.capacity;
+				if (!actionFull && depth < capacity) {
+					break;
+				}
+				switch (actionFull ? actionQueue.overflowPolicy : overflowPolicy) {
+				case DROP_OLDEST:
+					dropOldest(actionFull ? actionQueue : null);
+					break;
+				case COALESCE:
+					Slot last = actionQueue.slots.peekLast();
+					if (last == null) {
+						reject(actionQueue);
+						return false;
+					}
+					last.event = e;
+					coalescedCount++;
+					return true;
+				case BLOCK:
+					if (SwingUtilities.isEventDispatchThread()) {
+						// the queue is drained on this thread, waiting would never end
+						reject(actionQueue);
+						return false;
+					}
+					try {
+						wait();
+					} catch (InterruptedException err) {
+						Thread.currentThread().interrupt();
+						reject(actionQueue);
+						return false;
+					}
+					break;
+				default:
+					reject(actionQueue);
+					return false;
+				}
+			}
+			Slot slot = new Slot(actionQueue, e);
+			slots.addLast(slot);
+			actionQueue.slots.addLast(slot);
+			depth++;
+			schedule = !drainScheduled;
+			drainScheduled = true;
+		}
+		if (schedule) {
+			SwingUtilities.invokeLater(drainTask);
+		}
+		return true;
+	}
+
+	/**
+	 * Sets the capacity of the whole queue.
+	 *
+	 * @param capacity
+	 *            the maximum number of queued actions
+	 * @param overflowPolicy
+	 *            what to do when the queue is full
+	 */
+	public synchronized void setCapacity(int capacity, OverflowPolicy overflowPolicy) {
+		checkCapacity(capacity, overflowPolicy);
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		notifyAll();
+	}
+
+	/**
+	 * Sets the capacity for the actions named <code>actionName</code>.
+	 *
+	 * @param actionName
+	 *            the name of the action
+	 * @param capacity
+	 *            the maximum number of queued actions with that name
+	 * @param overflowPolicy
+	 *            what to do when there are too many of them
+	 */
+	public synchronized void setCapacity(String actionName, int capacity, OverflowPolicy overflowPolicy) {
+		checkCapacity(capacity, overflowPolicy);
+		ActionQueue actionQueue = getActionQueue(actionName);
+		actionQueue.configured = true;
+		actionQueue.capacity = capacity;
+		actionQueue.overflowPolicy = overflowPolicy;
+		notifyAll();
+	}
+
+	/**
+	 * Limits the rate of all the actions, <code>null</code> removes the limit.
+	 *
+	 * @param rateLimit
+	 *            the bucket every action takes a permit from
+	 */
+	public synchronized void setRateLimit(TokenBucket rateLimit) {
+		this.rateLimit = rateLimit;
+	}
+
+	/**
+	 * Limits the rate of the actions named <code>actionName</code>,
+	 * <code>null</code> removes the limit.
+	 *
+	 * @param actionName
+	 *            the name of the action
+	 * @param rateLimit
+	 *            the bucket those actions take a permit from
+	 */
+	public synchronized void setRateLimit(String actionName, TokenBucket rateLimit) {
+		ActionQueue actionQueue = getActionQueue(actionName);
+		actionQueue.configured = true;
+		actionQueue.rateLimit = rateLimit;
+	}
+
+	/**
+	 * Returns the number of actions waiting to be dispatched.
+	 */
+	public synchronized int getQueueDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the number of actions named <code>actionName</code> waiting to
+	 * be dispatched.
+	 */
+	public synchronized int getQueueDepth(String actionName) {
+		ActionQueue actionQueue = actionQueues.get(actionName);
+		return actionQueue == null ? 0 : actionQueue.slots.size();
+	}
+
+	/**
+	 * Returns the number of actions rejected or dropped.
+	 */
+	public synchronized long getRejectedCount() {
+		return rejectedCount;
+	}
+
+	/**
+	 * Returns the number of actions named <code>actionName</code> rejected or
+	 * dropped. Only counted for the names given a capacity or a rate limit,
+	 * the others are forgotten as soon as none of their actions is queued.
+	 */
+	public synchronized long getRejectedCount(String actionName) {
+		ActionQueue actionQueue = actionQueues.get(actionName);
+		return actionQueue == null ? 0L : actionQueue.rejectedCount;
+	}
+
+	/**
+	 * Returns the number of actions that replaced a queued one.
+	 */
+	public synchronized long getCoalescedCount() {
+		return coalescedCount;
+	}
+
+	/**
+	 * Dispatches the actions queued when the batch started, then schedules the
+	 * next batch if more arrived, so other EDT events are not starved. An
+	 * action throwing a RuntimeException does not stop the batch, and the
+	 * following batches run even if an Error ends this one.
+	 */
+	private void drain() {
+		try {
+			int budget;
+			synchronized (this) {
+				budget = depth;
+			}
+			while (budget-- > 0) {
+				ActionEvent e = poll();
+				if (e == null) {
+					break;
+				}
+				try {
+					router.doActionNow(e);
+				} catch (RuntimeException err) {
+					logger.error("Error dispatching " + e.getActionCommand(), err);
+				}
+			}
+		} finally {
+			synchronized (this) {
+				if (depth > 0) {
+					SwingUtilities.invokeLater(drainTask);
+				} else {
+					drainScheduled = false;
+				}
+			}
+		}
+	}
+
+	private synchronized ActionEvent poll() {
+		Slot slot = slots.pollFirst();
+		if (slot == null) {
+			return null;
+		}
+		ActionEvent e = slot.event;
+		remove(slot);
+		return e;
+	}
+
+	/**
+	 * Drops the oldest action of <code>actionQueue</code>, or of the whole
+	 * queue when <code>null</code>.
+	 */
+	private void dropOldest(ActionQueue actionQueue) {
+		Slot slot;
+		if (actionQueue != null) {
+			slot = actionQueue.slots.peekFirst();
+			slots.removeFirstOccurrence(slot);
+		} else {
+			slot = slots.pollFirst();
+		}
+		remove(slot);
+		reject(slot.actionQueue);
+	}
+
+	private void remove(Slot slot) {
+		slot.actionQueue.slots.remove(slot);
+		release(slot.actionQueue);
+		depth--;
+		notifyAll();
+	}
+
+	private void reject(ActionQueue actionQueue) {
+		actionQueue.rejectedCount++;
+		rejectedCount++;
+		release(actionQueue);
+	}
+
+	/**
+	 * Forgets the queue of a name without capacity nor rate limit once it is
+	 * empty, so every distinct action command does not stay in memory.
+	 */
+	private void release(ActionQueue actionQueue) {
+		if (!actionQueue.configured && actionQueue.slots.isEmpty() && actionQueues.get(actionQueue.actionName) == actionQueue) {
+			actionQueues.remove(actionQueue.actionName);
+		}
+	}
+
+	private ActionQueue getActionQueue(String actionName) {
+		ActionQueue actionQueue = actionQueues.get(actionName);
+		if (actionQueue == null) {
+			actionQueue = new ActionQueue(actionName);
+			actionQueues.put(actionName, actionQueue);
+		}
+		return actionQueue;
+	}
+
+	private static void checkCapacity(int capacity, OverflowPolicy overflowPolicy) {
+		if (capacity < 1 || overflowPolicy == null) {
+			throw new IllegalArgumentException("capacity must be positive and overflowPolicy not null");
+		}
+	}
+
+	/**
+	 * Limits, counters and queued actions of one action name.
+	 */
+	private static final class ActionQueue {
+
+		final String actionName;
+
+		final ArrayDeque<Slot> slots = new ArrayDeque<Slot>();
+
+		// given a capacity or a rate limit, kept even when empty
+		boolean configured;
+
+		int capacity = Integer.MAX_VALUE;
+
+		OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+		TokenBucket rateLimit;
+
+		long rejectedCount;
+
+		ActionQueue(String actionName) {
+			this.actionName = actionName;
+		}
+	}
+
+	/**
+	 * A queued action, in the global deque and in the deque of its action
+	 * name.
+	 */
+	private static final class Slot {
+
+		final ActionQueue actionQueue;
+
+		ActionEvent event;
+
+		Slot(ActionQueue actionQueue, ActionEvent event) {
+			this.actionQueue = actionQueue;
+			this.event = event;
+		}
+	}
+
+}
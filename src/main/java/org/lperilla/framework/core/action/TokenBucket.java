@@ -0,0 +1,64 @@
+package org.lperilla.framework.core.action;
+
+/**
+ * Token bucket rate limiter: allows bursts of up to <code>capacity</code>
+ * permits and refills at <code>permitsPerSecond</code>. Thread safe.
+ *
+ * @author lperilla
+ *
+ */
+public final class TokenBucket {
+
+	private final double capacity;
+
+	private final double tokensPerNano;
+
+	private double tokens;
+
+	private long lastRefill;
+
+	/**
+	 * @param capacity
+	 *            the maximum burst, the bucket starts full
+	 * @param permitsPerSecond
+	 *            the sustained rate
+	 */
+	public TokenBucket(int capacity, double permitsPerSecond) {
+		if (capacity < 1 || permitsPerSecond <= 0) {
+			throw new IllegalArgumentException("capacity and permitsPerSecond must be positive");
+		}
+		this.capacity = capacity;
+		this.tokensPerNano = permitsPerSecond / 1e9;
+		this.tokens = capacity;
+		this.lastRefill = System.nanoTime();
+	}
+
+	/**
+	 * Takes a permit if one is available, never blocks.
+	 *
+	 * @return <code>true</code> if a permit was taken
+	 */
+	public synchronized boolean tryAcquire() {
+		refill();
+		if (tokens >= 1) {
+			tokens -= 1;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the number of whole permits currently available.
+	 */
+	public synchronized int getAvailablePermits() {
+		refill();
+		return (int) tokens;
+	}
+
+	private void refill() {
+		long now = System.nanoTime();
+		tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+		lastRefill = now;
+	}
+
+}
@@ -0,0 +1,77 @@
+package org.lperilla.framework.core.action;
+
+import java.awt.event.ActionEvent;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lperilla.framework.core.exceptions.IllegalUserActionException;
+
+/**
+ * Default {@link UserActionErrorHandler} of the {@link ActionRouter}: counts
+ * the rejections per error code and only builds their message when debug
+ * logging is enabled.
+ *
+ * @author lperilla
+ *
+ */
+public class UserActionErrorCounter implements UserActionErrorHandler {
+
+	private static final Logger logger = LogManager.getLogger(UserActionErrorCounter.class);
+
+	/** Key counting the rejections without error code */
+	public static final String NO_CODE = "";
+
+	private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<String, AtomicLong>();
+
+	public void actionRejected(Command command, ActionEvent e, IllegalUserActionException err) {
+		String code = err.getErrorCode() == null ? NO_CODE : err.getErrorCode();
+		AtomicLong counter = counters.get(code);
+		if (counter == null) {
+			AtomicLong created = new AtomicLong();
+			counter = counters.putIfAbsent(code, created);
+			if (counter == null) {
+				counter = created;
+			}
+		}
+		counter.incrementAndGet();
+		if (logger.isDebugEnabled()) {
+			logger.debug("Action " + e.getActionCommand() + " rejected by " + command + ": " + err.getFullMessage());
+		}
+	}
+
+	/**
+	 * Returns the number of rejections with <code>errorCode</code>.
+	 *
+	 * @param errorCode
+	 *            the error code, {@link #NO_CODE} for rejections without one
+	 * @return the number of rejections
+	 */
+	public long getCount(String errorCode) {
+		AtomicLong counter = counters.get(errorCode);
+		return counter == null ? 0L : counter.get();
+	}
+
+	/**
+	 * Returns a snapshot of the number of rejections per error code.
+	 */
+	public Map<String, Long> getCounts() {
+		Map<String, Long> counts = new HashMap<String, Long>();
+		for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+			counts.put(entry.getKey(), entry.getValue().get());
+		}
+		return counts;
+	}
+
+	/**
+	 * Resets every counter.
+	 */
+	public void reset() {
+		counters.clear();
+	}
+
+}
@@ -0,0 +1,29 @@
+package org.lperilla.framework.core.action;
+
+import java.awt.event.ActionEvent;
+
+import org.lperilla.framework.core.exceptions.IllegalUserActionException;
+
+/**
+ * Receives the {@link IllegalUserActionException}s thrown by the
+ * {@link Command}s dispatched by the {@link ActionRouter}. Called on the
+ * dispatching thread, implementations should be cheap.
+ *
+ * @author lperilla
+ *
+ */
+public interface UserActionErrorHandler {
+
+	/**
+	 * Called when <code>command</code> rejects the action.
+	 *
+	 * @param command
+	 *            the command that rejected the action
+	 * @param e
+	 *            the rejected action
+	 * @param err
+	 *            the rejection
+	 */
+	public void actionRejected(Command command, ActionEvent e, IllegalUserActionException err);
+
+}
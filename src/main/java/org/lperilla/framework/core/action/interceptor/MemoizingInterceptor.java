@@ -0,0 +1,136 @@
+package org.lperilla.framework.core.action.interceptor;
+
+import java.awt.event.ActionEvent;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.lperilla.framework.core.action.Command;
+import org.lperilla.framework.core.action.CommandInterceptor;
+import org.lperilla.framework.core.action.CommandInvocation;
+import org.lperilla.framework.core.exceptions.IllegalUserActionException;
+
+/**
+ * Memoises the outcome of pure commands, whose effect only depends on the
+ * event. An event equal to one already executed by the same command, same
+ * action command, source, id and modifiers, within <code>ttlMillis</code> is
+ * not executed again: the command is skipped, or the cached rejection is
+ * thrown again. Only register it for commands that are safe to skip.
+ *
+ * @author lperilla
+ *
+ */
+public class MemoizingInterceptor implements CommandInterceptor {
+
+	private final long ttlNanos;
+
+	private final Map<Key, Outcome> cache;
+
+	/**
+	 * @param ttlMillis
+	 *            how long an outcome is reused
+	 * @param maxEntries
+	 *            the maximum number of outcomes kept
+	 */
+	public MemoizingInterceptor(long ttlMillis, final int maxEntries) {
+		this.ttlNanos = ttlMillis * 1000000L;
+		this.cache = new LinkedHashMap<Key, Outcome>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Outcome> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	public void intercept(CommandInvocation invocation) throws IllegalUserActionException {
+		Key key = new Key(invocation.getCommand(), invocation.getEvent());
+		long now = System.nanoTime();
+		Outcome outcome;
+		synchronized (cache) {
+			outcome = cache.get(key);
+		}
+		if (outcome != null && now - outcome.created < ttlNanos) {
+			if (outcome.rejection != null) {
+				throw outcome.rejection;
+			}
+			return;
+		}
+		try {
+			invocation.proceed();
+			store(key, new Outcome(now, null));
+		} catch (IllegalUserActionException err) {
+			store(key, new Outcome(now, err));
+			throw err;
+		}
+	}
+
+	/**
+	 * Discards every memoised outcome.
+	 */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+	private void store(Key key, Outcome outcome) {
+		synchronized (cache) {
+			cache.put(key, outcome);
+		}
+	}
+
+	private static final class Key {
+
+		private final Command command;
+
+		private final String actionCommand;
+
+		private final Object source;
+
+		private final int id;
+
+		private final int modifiers;
+
+		Key(Command command, ActionEvent e) {
+			this.command = command;
+			this.actionCommand = e.getActionCommand();
+			this.source = e.getSource();
+			this.id = e.getID();
+			this.modifiers = e.getModifiers();
+		}
+
+		@Override
+		public int hashCode() {
+			int result = System.identityHashCode(command);
+			result = 31 * result + (actionCommand == null ? 0 : actionCommand.hashCode());
+			result = 31 * result + source.hashCode();
+			result = 31 * result + id;
+			return 31 * result + modifiers;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return command == other.command && id == other.id && modifiers == other.modifiers && source.equals(other.source)
+					&& (actionCommand == null ? other.actionCommand == null : actionCommand.equals(other.actionCommand));
+		}
+	}
+
+	private static final class Outcome {
+
+		final long created;
+
+		final IllegalUserActionException rejection;
+
+		Outcome(long created, IllegalUserActionException rejection) {
+			this.created = created;
+			this.rejection = rejection;
+		}
+	}
+
+}
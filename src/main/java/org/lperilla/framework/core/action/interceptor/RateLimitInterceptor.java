@@ -0,0 +1,42 @@
+package org.lperilla.framework.core.action.interceptor;
+
+import org.lperilla.framework.core.action.CommandInterceptor;
+import org.lperilla.framework.core.action.CommandInvocation;
+import org.lperilla.framework.core.action.TokenBucket;
+import org.lperilla.framework.core.exceptions.IllegalUserActionException;
+
+/**
+ * Rejects executions above a rate with a stackless
+ * {@link IllegalUserActionException} with code {@link #RATE_LIMITED}. The
+ * limit is shared by every command the interceptor is registered for.
+ *
+ * @author lperilla
+ *
+ */
+public class RateLimitInterceptor implements CommandInterceptor {
+
+	public static final String RATE_LIMITED = "RATE_LIMITED";
+
+	private final TokenBucket bucket;
+
+	// stackless and without cause, it is safe to throw the same instance
+	private final IllegalUserActionException rejection = IllegalUserActionException.stackless(RATE_LIMITED, "Too many actions, try again later");
+
+	/**
+	 * @param burst
+	 *            the number of executions allowed at once
+	 * @param permitsPerSecond
+	 *            the sustained number of executions per second
+	 */
+	public RateLimitInterceptor(int burst, double permitsPerSecond) {
+		this.bucket = new TokenBucket(burst, permitsPerSecond);
+	}
+
+	public void intercept(CommandInvocation invocation) throws IllegalUserActionException {
+		if (!bucket.tryAcquire()) {
+			throw rejection;
+		}
+		invocation.proceed();
+	}
+
+}
@@ -0,0 +1,71 @@
+package org.lperilla.framework.core.action.interceptor;
+
+import java.util.concurrent.Executor;
+
+import javax.swing.SwingUtilities;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lperilla.framework.core.action.CommandInterceptor;
+import org.lperilla.framework.core.action.CommandInvocation;
+import org.lperilla.framework.core.action.UserActionErrorHandler;
+import org.lperilla.framework.core.exceptions.IllegalUserActionException;
+
+/**
+ * Runs the rest of the chain on an {@link Executor}, for instance to move a
+ * slow command off the EDT. The dispatching thread returns at once, so
+ * rejections are handed to the given {@link UserActionErrorHandler} on the
+ * executor thread instead of to the router.
+ *
+ * @author lperilla
+ *
+ */
+public class ThreadHopInterceptor implements CommandInterceptor {
+
+	private static final Logger logger = LogManager.getLogger(ThreadHopInterceptor.class);
+
+	private static final Executor EDT = new Executor() {
+		public void execute(Runnable command) {
+			SwingUtilities.invokeLater(command);
+		}
+	};
+
+	private final Executor executor;
+
+	private final UserActionErrorHandler errorHandler;
+
+	/**
+	 * @param executor
+	 *            the executor running the rest of the chain
+	 * @param errorHandler
+	 *            the handler of the rejections, may be <code>null</code>
+	 */
+	public ThreadHopInterceptor(Executor executor, UserActionErrorHandler errorHandler) {
+		this.executor = executor;
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * Returns an interceptor moving the rest of the chain back to the EDT.
+	 */
+	public static ThreadHopInterceptor edt(UserActionErrorHandler errorHandler) {
+		return new ThreadHopInterceptor(EDT, errorHandler);
+	}
+
+	public void intercept(final CommandInvocation invocation) {
+		executor.execute(new Runnable() {
+			public void run() {
+				try {
+					invocation.proceed();
+				} catch (IllegalUserActionException err) {
+					if (errorHandler != null) {
+						errorHandler.actionRejected(invocation.getCommand(), invocation.getEvent(), err);
+					}
+				} catch (Exception err) {
+					logger.error("Error processing " + invocation.getCommand(), err);
+				}
+			}
+		});
+	}
+
+}
@@ -0,0 +1,129 @@
+package org.lperilla.framework.core.action.interceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lperilla.framework.core.action.CommandInterceptor;
+import org.lperilla.framework.core.action.CommandInvocation;
+import org.lperilla.framework.core.exceptions.IllegalUserActionException;
+
+/**
+ * Measures the time spent by the rest of the chain, per action command.
+ * Commands slower than the threshold are logged at warn level.
+ *
+ * @author lperilla
+ *
+ */
+public class TimingInterceptor implements CommandInterceptor {
+
+	private static final Logger logger = LogManager.getLogger(TimingInterceptor.class);
+
+	private final ConcurrentMap<String, Stats> stats = new ConcurrentHashMap<String, Stats>();
+
+	private final long slowThresholdNanos;
+
+	/**
+	 * @param slowThresholdMillis
+	 *            executions longer than this are logged, 0 or less to never
+	 *            log
+	 */
+	public TimingInterceptor(long slowThresholdMillis) {
+		this.slowThresholdNanos = slowThresholdMillis <= 0 ? Long.MAX_VALUE : slowThresholdMillis * 1000000L;
+	}
+
+	public void intercept(CommandInvocation invocation) throws IllegalUserActionException {
+		long start = System.nanoTime();
+		try {
+			invocation.proceed();
+		} finally {
+			long elapsed = System.nanoTime() - start;
+			String actionCommand = invocation.getEvent().getActionCommand();
+			getStats(String.valueOf(actionCommand)).add(elapsed);
+			if (elapsed >= slowThresholdNanos) {
+				logger.warn(invocation.getCommand() + " took " + (elapsed / 1000000L) + " ms for " + actionCommand);
+			}
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the statistics, by action command.
+	 */
+	public Map<String, Stats> getStats() {
+		Map<String, Stats> snapshot = new HashMap<String, Stats>();
+		for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+			snapshot.put(entry.getKey(), entry.getValue().copy());
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Resets the statistics.
+	 */
+	public void reset() {
+		stats.clear();
+	}
+
+	private Stats getStats(String actionCommand) {
+		Stats value = stats.get(actionCommand);
+		if (value == null) {
+			Stats created = new Stats();
+			value = stats.putIfAbsent(actionCommand, created);
+			if (value == null) {
+				value = created;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Execution statistics of one action command.
+	 */
+	public static final class Stats {
+
+		private long count;
+
+		private long totalNanos;
+
+		private long maxNanos;
+
+		synchronized void add(long nanos) {
+			count++;
+			totalNanos += nanos;
+			maxNanos = Math.max(maxNanos, nanos);
+		}
+
+		synchronized Stats copy() {
+			Stats copy = new Stats();
+			copy.count = count;
+			copy.totalNanos = totalNanos;
+			copy.maxNanos = maxNanos;
+			return copy;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+
+		public long getAverageNanos() {
+			return count == 0 ? 0L : totalNanos / count;
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + count + ", avg=" + getAverageNanos() + "ns, max=" + maxNanos + "ns";
+		}
+	}
+
+}
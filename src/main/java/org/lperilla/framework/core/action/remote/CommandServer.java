@@ -0,0 +1,227 @@
+package org.lperilla.framework.core.action.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lperilla.framework.core.action.ActionRouter;
+import org.lperilla.framework.core.action.CommandChain;
+import org.lperilla.framework.core.exceptions.IllegalUserActionException;
+
+/**
+ * Worker side of {@link SocketCommandTransport}. Accepts connections and
+ * executes the received actions with the command chains registered in the
+ * local {@link ActionRouter}, sending back one {@link RemoteResult} per event.
+ * <p>
+ * Each connection is served by its own thread; the events of a frame are
+ * executed in order and their results are written back in a single frame.
+ * <p>
+ * The server only listens on the loopback interface, and a connection must
+ * start with the authentication token of the server, which the owner of the
+ * server hands to the client process, for example on its command line. A
+ * connection with a wrong token or a malformed frame is closed.
+ *
+ * @author lperilla
+ *
+ */
+public class CommandServer implements Closeable {
+
+	private static final Logger logger = LogManager.getLogger(CommandServer.class);
+
+	/** Maximum number of events a client may send in one frame */
+	public static final int MAX_BATCH_SIZE = 1024;
+
+	/** Length in bytes of the authentication tokens */
+	public static final int AUTH_TOKEN_LENGTH = 32;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final ActionRouter router;
+
+	private final byte[] authToken;
+
+	private final ServerSocket serverSocket;
+
+	private volatile boolean closed;
+
+	/**
+	 * Starts a server listening on <code>port</code> of the loopback
+	 * interface, with a random authentication token.
+	 *
+	 * @param port
+	 *            the port to listen on, 0 to pick any free port
+	 * @param router
+	 *            the router owning the commands to execute
+	 * @throws IOException
+	 *             if the port can not be bound
+	 */
+	public CommandServer(int port, ActionRouter router) throws IOException {
+		this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), router, newAuthToken());
+	}
+
+	/**
+	 * Starts a server listening on a loopback address.
+	 *
+	 * @param address
+	 *            the loopback address to listen on
+	 * @param router
+	 *            the router owning the commands to execute
+	 * @param authToken
+	 *            the token clients must send, {@link #AUTH_TOKEN_LENGTH}
+	 *            bytes
+	 * @throws IOException
+	 *             if the address can not be bound
+	 */
+	public CommandServer(InetSocketAddress address, ActionRouter router, byte[] authToken) throws IOException {
+		if (address.getAddress() == null || !address.getAddress().isLoopbackAddress()) {
+			throw new IllegalArgumentException("CommandServer only listens on loopback addresses: " + address);
+		}
+		if (authToken == null || authToken.length != AUTH_TOKEN_LENGTH) {
+			throw new IllegalArgumentException("authToken must have " + AUTH_TOKEN_LENGTH + " bytes");
+		}
+		this.router = router;
+		this.authToken = authToken.clone();
+		this.serverSocket = new ServerSocket();
+		this.serverSocket.bind(address);
+		start(new Runnable() {
+			public void run() {
+				acceptLoop();
+			}
+		}, "accept-" + getPort());
+	}
+
+	/**
+	 * Returns the port the server is listening on.
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Returns a copy of the token clients must send to connect.
+	 */
+	public byte[] getAuthToken() {
+		return authToken.clone();
+	}
+
+	public void close() throws IOException {
+		closed = true;
+		serverSocket.close();
+	}
+
+	private void acceptLoop() {
+		while (!closed) {
+			try {
+				final Socket socket = serverSocket.accept();
+				start(new Runnable() {
+					public void run() {
+						serve(socket);
+					}
+				}, "worker-" + socket.getPort());
+			} catch (IOException e) {
+				if (!closed) {
+					logger.error("Error accepting connections on port " + getPort(), e);
+				}
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+		try {
+			socket.setTcpNoDelay(true);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+			byte[] token = new byte[AUTH_TOKEN_LENGTH];
+			int magic = in.readInt();
+			in.readFully(token);
+			if (magic != EventCodec.MAGIC || !MessageDigest.isEqual(token, authToken)) {
+				logger.warn("Rejected connection from " + socket.getRemoteSocketAddress() + ": bad handshake");
+				return;
+			}
+			while (!closed) {
+				int count = in.readInt();
+				if (count < 1 || count > MAX_BATCH_SIZE) {
+					logger.warn("Closing connection from " + socket.getRemoteSocketAddress() + ": bad frame size " + count);
+					return;
+				}
+				EventCodec.RemoteEvent[] events = new EventCodec.RemoteEvent[count];
+				for (int index = 0; index < count; index++) {
+					events[index] = EventCodec.readEvent(in);
+				}
+				out.writeInt(count);
+				for (EventCodec.RemoteEvent remoteEvent : events) {
+					EventCodec.writeResult(out, remoteEvent.requestId, execute(remoteEvent));
+				}
+				out.flush();
+			}
+		} catch (EOFException e) {
+			logger.debug("Connection closed by " + socket.getRemoteSocketAddress());
+		} catch (SocketException e) {
+			logger.debug("Connection to " + socket.getRemoteSocketAddress() + " closed", e);
+		} catch (IOException e) {
+			logger.error("Error serving " + socket.getRemoteSocketAddress(), e);
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				logger.warn(e);
+			}
+		}
+	}
+
+	private RemoteResult execute(EventCodec.RemoteEvent remoteEvent) {
+		String actionCommand = remoteEvent.event.getActionCommand();
+		List<CommandChain> chains = router.getCommandChains(actionCommand);
+		if (chains.isEmpty()) {
+			return RemoteResult.failed("No command registered for " + actionCommand);
+		}
+		// like ActionRouter, every command runs, the first problem is reported
+		RemoteResult outcome = null;
+		for (CommandChain chain : chains) {
+			if (chain.getCommand() instanceof RemoteCommand) {
+				// never bounce an action back to another process
+				continue;
+			}
+			try {
+				chain.execute(remoteEvent.event);
+			} catch (IllegalUserActionException e) {
+				if (outcome == null) {
+					outcome = RemoteResult.rejected(e.getMessage());
+				}
+			} catch (Exception e) {
+				logger.error("Error processing " + chain.toString(), e);
+				if (outcome == null) {
+					outcome = RemoteResult.failed(e.toString());
+				}
+			}
+		}
+		return outcome == null ? RemoteResult.ok() : outcome;
+	}
+
+	private static byte[] newAuthToken() {
+		byte[] token = new byte[AUTH_TOKEN_LENGTH];
+		new SecureRandom().nextBytes(token);
+		return token;
+	}
+
+	private static void start(Runnable runnable, String name) {
+		Thread thread = new Thread(runnable, "CommandServer-" + name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+}
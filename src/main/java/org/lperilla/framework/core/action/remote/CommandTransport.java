@@ -0,0 +1,42 @@
+package org.lperilla.framework.core.action.remote;
+
+import java.awt.event.ActionEvent;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Future;
+
+/**
+ * Service provider interface used by {@link RemoteCommand} to execute an
+ * action outside of the JVM that owns the
+ * {@link org.lperilla.framework.core.action.ActionRouter}.
+ * <p>
+ * Implementations must be thread safe, events may be dispatched from the EDT
+ * and from any other thread calling
+ * {@link org.lperilla.framework.core.action.ActionRouter#doActionNow(ActionEvent)}
+ * .
+ *
+ * @author lperilla
+ *
+ */
+public interface CommandTransport extends Closeable {
+
+	/**
+	 * Sends the event to the remote executor. Implementations bounding the
+	 * events waiting for a response may make the caller wait for room, but
+	 * never on the EDT: there a full window completes the event at once with a
+	 * {@link RemoteResult.Status#FAILED} result.
+	 *
+	 * @param e
+	 *            the event to execute remotely
+	 * @param listener
+	 *            notified with the remote outcome, may be <code>null</code>
+	 * @return a future completed with the remote outcome
+	 * @throws IOException
+	 *             if the event can not be sent
+	 * @throws InterruptedException
+	 *             if the caller, outside the EDT, is interrupted while waiting
+	 *             for room in the in-flight window
+	 */
+	public Future<RemoteResult> dispatch(ActionEvent e, RemoteResultListener listener) throws IOException, InterruptedException;
+
+}
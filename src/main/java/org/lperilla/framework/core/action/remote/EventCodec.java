@@ -0,0 +1,100 @@
+package org.lperilla.framework.core.action.remote;
+
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary encoding of the frames exchanged by {@link SocketCommandTransport}
+ * and {@link CommandServer}.
+ * <p>
+ * A request frame is the number of events followed by, for each event, the
+ * request id, event id, modifiers, timestamp, action command and source id. A
+ * response frame is the number of results followed by, for each result, the
+ * request id, the status ordinal and an optional message.
+ */
+final class EventCodec {
+
+	static final int MAGIC = 0x41435450;
+
+	// keeps writeUTF well below its 64k byte limit
+	private static final int MAX_STRING_LENGTH = 16384;
+
+	private static final RemoteResult.Status[] STATUSES = RemoteResult.Status.values();
+
+	private EventCodec() {
+	}
+
+	static void writeEvent(DataOutput out, int requestId, ActionEvent e) throws IOException {
+		out.writeInt(requestId);
+		out.writeInt(e.getID());
+		out.writeInt(e.getModifiers());
+		out.writeLong(e.getWhen());
+		writeString(out, e.getActionCommand());
+		writeString(out, sourceId(e.getSource()));
+	}
+
+	static RemoteEvent readEvent(DataInput in) throws IOException {
+		int requestId = in.readInt();
+		int id = in.readInt();
+		int modifiers = in.readInt();
+		long when = in.readLong();
+		String command = readString(in);
+		String source = readString(in);
+		return new RemoteEvent(requestId, new ActionEvent(source == null ? "" : source, id, command, when, modifiers));
+	}
+
+	static void writeResult(DataOutput out, int requestId, RemoteResult result) throws IOException {
+		out.writeInt(requestId);
+		out.writeByte(result.getStatus().ordinal());
+		writeString(out, result.getMessage());
+	}
+
+	static RemoteResult readResult(DataInput in, int[] requestId) throws IOException {
+		requestId[0] = in.readInt();
+		int status = in.readUnsignedByte();
+		if (status >= STATUSES.length) {
+			throw new IOException("Unknown result status " + status);
+		}
+		return RemoteResult.valueOf(STATUSES[status], readString(in));
+	}
+
+	private static void writeString(DataOutput out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value.length() > MAX_STRING_LENGTH ? value.substring(0, MAX_STRING_LENGTH) : value);
+		}
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static String sourceId(Object source) {
+		if (source instanceof Component && ((Component) source).getName() != null) {
+			return ((Component) source).getName();
+		}
+		if (source instanceof String) {
+			return (String) source;
+		}
+		return source == null ? null : source.getClass().getName();
+	}
+
+	/**
+	 * An event decoded from a request frame.
+	 */
+	static final class RemoteEvent {
+
+		final int requestId;
+
+		final ActionEvent event;
+
+		RemoteEvent(int requestId, ActionEvent event) {
+			this.requestId = requestId;
+			this.event = event;
+		}
+	}
+
+}
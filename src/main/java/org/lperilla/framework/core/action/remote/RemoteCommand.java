@@ -0,0 +1,167 @@
+package org.lperilla.framework.core.action.remote;
+
+import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.swing.SwingUtilities;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lperilla.framework.core.action.Command;
+import org.lperilla.framework.core.action.UserActionErrorHandler;
+import org.lperilla.framework.core.exceptions.IllegalUserActionException;
+
+/**
+ * {@link Command} that forwards its action to a {@link CommandTransport}. Use
+ * {@link org.lperilla.framework.core.action.ActionRouter#bindRemote(String, CommandTransport)}
+ * to register one.
+ * <p>
+ * By default the command returns as soon as the action is queued. Outside the
+ * EDT it may wait for room in the in-flight window of the transport, on the
+ * EDT a full window fails the action instead. A remote rejection is then
+ * delivered later on the EDT to the {@link UserActionErrorHandler} of the
+ * command, and a remote failure is logged. With a positive timeout the command
+ * waits for the outcome instead, so a remote rejection surfaces as an
+ * {@link IllegalUserActionException} exactly as a local one would; it never
+ * waits on the EDT, where the outcome is always delivered asynchronously.
+ *
+ * @author lperilla
+ *
+ */
+public class RemoteCommand implements Command {
+
+	private static final Logger logger = LogManager.getLogger(RemoteCommand.class);
+
+	public static final long DEFAULT_TIMEOUT_MILLIS = 0L;
+
+	/** Error code of the rejections received from the remote executor */
+	public static final String REMOTE_REJECTED = "REMOTE_REJECTED";
+
+	private final Set<String> actionNames;
+
+	private final CommandTransport transport;
+
+	private volatile long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+	private volatile UserActionErrorHandler userActionErrorHandler;
+
+	private final RemoteResultListener resultListener = new RemoteResultListener() {
+		public void resultReceived(ActionEvent e, RemoteResult result) {
+			resultDelivered(e, result);
+		}
+	};
+
+	public RemoteCommand(String actionName, CommandTransport transport) {
+		if (actionName == null || transport == null) {
+			throw new IllegalArgumentException("actionName and transport can not be null");
+		}
+		this.actionNames = Collections.singleton(actionName);
+		this.transport = transport;
+	}
+
+	public void doAction(ActionEvent e) throws IllegalUserActionException {
+		boolean wait = timeoutMillis > 0 && !SwingUtilities.isEventDispatchThread();
+		Future<RemoteResult> future;
+		try {
+			future = transport.dispatch(e, wait ? null : resultListener);
+		} catch (IOException err) {
+			throw new IllegalStateException("Could not dispatch " + e.getActionCommand(), err);
+		} catch (InterruptedException err) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted dispatching " + e.getActionCommand(), err);
+		}
+		if (!wait) {
+			return;
+		}
+		RemoteResult result;
+		try {
+			result = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException err) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted waiting for " + e.getActionCommand(), err);
+		} catch (ExecutionException err) {
+			throw new IllegalStateException("Remote execution of " + e.getActionCommand() + " failed", err.getCause());
+		} catch (TimeoutException err) {
+			throw new IllegalStateException("Remote execution of " + e.getActionCommand() + " timed out", err);
+		}
+		switch (result.getStatus()) {
+		case REJECTED:
+			throw IllegalUserActionException.stackless(REMOTE_REJECTED, result.getMessage());
+		case FAILED:
+			throw new IllegalStateException("Remote execution of " + e.getActionCommand() + " failed: " + result.getMessage());
+		default:
+			break;
+		}
+	}
+
+	public Set<String> getActionNames() {
+		return actionNames;
+	}
+
+	public CommandTransport getTransport() {
+		return transport;
+	}
+
+	public UserActionErrorHandler getUserActionErrorHandler() {
+		return userActionErrorHandler;
+	}
+
+	/**
+	 * Sets the handler receiving, on the EDT, the remote rejections of the
+	 * actions that were not waited for.
+	 *
+	 * @param userActionErrorHandler
+	 *            the handler, <code>null</code> to ignore the rejections
+	 */
+	public void setUserActionErrorHandler(UserActionErrorHandler userActionErrorHandler) {
+		this.userActionErrorHandler = userActionErrorHandler;
+	}
+
+	public long getTimeoutMillis() {
+		return timeoutMillis;
+	}
+
+	/**
+	 * Sets how long {@link #doAction(ActionEvent)} waits for the remote
+	 * outcome, zero or less to return without waiting. Ignored on the EDT.
+	 *
+	 * @param timeoutMillis
+	 *            the timeout in milliseconds
+	 */
+	public void setTimeoutMillis(long timeoutMillis) {
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	private void resultDelivered(final ActionEvent e, RemoteResult result) {
+		switch (result.getStatus()) {
+		case REJECTED:
+			final UserActionErrorHandler handler = userActionErrorHandler;
+			if (handler != null) {
+				final IllegalUserActionException err = IllegalUserActionException.stackless(REMOTE_REJECTED, result.getMessage());
+				SwingUtilities.invokeLater(new Runnable() {
+					public void run() {
+						handler.actionRejected(RemoteCommand.this, e, err);
+					}
+				});
+			}
+			break;
+		case FAILED:
+			logger.error("Remote execution of " + e.getActionCommand() + " failed: " + result.getMessage());
+			break;
+		default:
+			break;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "RemoteCommand" + actionNames;
+	}
+
+}
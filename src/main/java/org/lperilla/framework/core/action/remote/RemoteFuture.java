@@ -0,0 +1,60 @@
+package org.lperilla.framework.core.action.remote;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Future completed by the reader thread of {@link SocketCommandTransport} when
+ * the response for its request arrives.
+ */
+final class RemoteFuture implements Future<RemoteResult> {
+
+	private final CountDownLatch done = new CountDownLatch(1);
+
+	private volatile RemoteResult result;
+
+	/**
+	 * Completes the future, only the first call has effect.
+	 *
+	 * @return <code>true</code> if this call completed the future
+	 */
+	synchronized boolean complete(RemoteResult value) {
+		if (result != null) {
+			return false;
+		}
+		result = value;
+		done.countDown();
+		return true;
+	}
+
+	/**
+	 * Remote requests can not be cancelled once sent.
+	 */
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		return false;
+	}
+
+	public boolean isCancelled() {
+		return false;
+	}
+
+	public boolean isDone() {
+		return result != null;
+	}
+
+	public RemoteResult get() throws InterruptedException, ExecutionException {
+		done.await();
+		return result;
+	}
+
+	public RemoteResult get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if (!done.await(timeout, unit)) {
+			throw new TimeoutException("No response after " + timeout + " " + unit);
+		}
+		return result;
+	}
+
+}
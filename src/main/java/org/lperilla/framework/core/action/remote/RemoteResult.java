@@ -0,0 +1,64 @@
+package org.lperilla.framework.core.action.remote;
+
+/**
+ * Outcome of an action executed by a remote {@link CommandTransport}.
+ *
+ * @author lperilla
+ *
+ */
+public final class RemoteResult {
+
+	public enum Status {
+		/** Every remote command completed normally */
+		OK,
+		/** A remote command threw an IllegalUserActionException */
+		REJECTED,
+		/** A remote command failed, or the action could not be delivered */
+		FAILED
+	}
+
+	private static final RemoteResult OK = new RemoteResult(Status.OK, null);
+
+	private final Status status;
+
+	private final String message;
+
+	private RemoteResult(Status status, String message) {
+		this.status = status;
+		this.message = message;
+	}
+
+	public static RemoteResult ok() {
+		return OK;
+	}
+
+	public static RemoteResult rejected(String message) {
+		return new RemoteResult(Status.REJECTED, message);
+	}
+
+	public static RemoteResult failed(String message) {
+		return new RemoteResult(Status.FAILED, message);
+	}
+
+	static RemoteResult valueOf(Status status, String message) {
+		return status == Status.OK ? OK : new RemoteResult(status, message);
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public boolean isOk() {
+		return status == Status.OK;
+	}
+
+	@Override
+	public String toString() {
+		return message == null ? status.toString() : status + ": " + message;
+	}
+
+}
@@ -0,0 +1,27 @@
+package org.lperilla.framework.core.action.remote;
+
+import java.awt.event.ActionEvent;
+
+/**
+ * Receives the outcome of an action sent through a {@link CommandTransport}.
+ *
+ * @author lperilla
+ *
+ */
+public interface RemoteResultListener {
+
+	/**
+	 * Called once per dispatched event, on a thread of the transport, when the
+	 * remote outcome is known or the event could not be delivered; in the
+	 * latter case it may be called on the dispatching thread, before
+	 * {@link CommandTransport#dispatch(ActionEvent, RemoteResultListener)}
+	 * returns. Implementations must not block.
+	 *
+	 * @param e
+	 *            the dispatched event
+	 * @param result
+	 *            the remote outcome
+	 */
+	public void resultReceived(ActionEvent e, RemoteResult result);
+
+}
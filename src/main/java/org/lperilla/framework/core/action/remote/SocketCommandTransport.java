@@ -0,0 +1,286 @@
+package org.lperilla.framework.core.action.remote;
+
+import java.awt.event.ActionEvent;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * {@link CommandTransport} that sends actions over a socket to a
+ * {@link CommandServer}, usually running in a worker process on the loopback
+ * interface. The connection is opened with the authentication token of the
+ * server, see {@link CommandServer#getAuthToken()}.
+ * <p>
+ * Events queued while a frame is being written are sent together in the next
+ * frame, up to <code>maxBatchSize</code> events per frame. At most
+ * <code>maxInFlight</code> events may be waiting for a response, further calls
+ * to {@link #dispatch(ActionEvent, RemoteResultListener)} block until a
+ * response arrives, except on the EDT where the event fails at once.
+ *
+ * @author lperilla
+ *
+ */
+public class SocketCommandTransport implements CommandTransport {
+
+	private static final Logger logger = LogManager.getLogger(SocketCommandTransport.class);
+
+	public static final int DEFAULT_MAX_IN_FLIGHT = 256;
+
+	public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Socket socket;
+
+	private final DataOutputStream out;
+
+	private final DataInputStream in;
+
+	private final int maxBatchSize;
+
+	private final Semaphore window;
+
+	private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<Pending>();
+
+	private final Map<Integer, Pending> inFlight = new ConcurrentHashMap<Integer, Pending>();
+
+	private final AtomicInteger nextRequestId = new AtomicInteger();
+
+	private final Thread writer;
+
+	private volatile boolean closed;
+
+	/**
+	 * Connects to a {@link CommandServer} listening on the loopback interface.
+	 *
+	 * @param port
+	 *            the port of the server
+	 * @param authToken
+	 *            the authentication token of the server
+	 * @throws IOException
+	 *             if the connection can not be established
+	 */
+	public SocketCommandTransport(int port, byte[] authToken) throws IOException {
+		this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), authToken, DEFAULT_MAX_IN_FLIGHT, DEFAULT_MAX_BATCH_SIZE);
+	}
+
+	/**
+	 * Connects to a {@link CommandServer}.
+	 *
+	 * @param address
+	 *            the address of the server
+	 * @param authToken
+	 *            the authentication token of the server
+	 * @param maxInFlight
+	 *            the maximum number of events waiting for a response
+	 * @param maxBatchSize
+	 *            the maximum number of events sent in one frame, at most
+	 *            {@link CommandServer#MAX_BATCH_SIZE}
+	 * @throws IOException
+	 *             if the connection can not be established
+	 */
+	public SocketCommandTransport(InetSocketAddress address, byte[] authToken, int maxInFlight, int maxBatchSize) throws IOException {
+		if (maxInFlight < 1 || maxBatchSize < 1 || maxBatchSize > CommandServer.MAX_BATCH_SIZE) {
+			throw new IllegalArgumentException("maxInFlight must be positive and maxBatchSize between 1 and " + CommandServer.MAX_BATCH_SIZE);
+		}
+		if (authToken == null || authToken.length != CommandServer.AUTH_TOKEN_LENGTH) {
+			throw new IllegalArgumentException("authToken must have " + CommandServer.AUTH_TOKEN_LENGTH + " bytes");
+		}
+		this.maxBatchSize = maxBatchSize;
+		this.window = new Semaphore(maxInFlight);
+		this.socket = new Socket();
+		this.socket.setTcpNoDelay(true);
+		this.socket.connect(address);
+		this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+		this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+		this.out.writeInt(EventCodec.MAGIC);
+		this.out.write(authToken);
+		this.out.flush();
+
+		this.writer = start(new Runnable() {
+			public void run() {
+				writeLoop();
+			}
+		}, "writer");
+		start(new Runnable() {
+			public void run() {
+				readLoop();
+			}
+		}, "reader");
+	}
+
+	public Future<RemoteResult> dispatch(ActionEvent e, RemoteResultListener listener) throws IOException, InterruptedException {
+		if (closed) {
+			throw new IOException("Transport closed");
+		}
+		if (SwingUtilities.isEventDispatchThread()) {
+			if (!window.tryAcquire()) {
+				// waiting for a slow or hung worker would freeze the UI
+				return failNow(e, listener, "Too many remote actions in flight");
+			}
+		} else {
+			window.acquire();
+		}
+		Pending pending = new Pending(nextRequestId.incrementAndGet(), e, listener);
+		inFlight.put(pending.requestId, pending);
+		if (closed) {
+			// close() may have run between the check and the registration
+			complete(pending.requestId, RemoteResult.failed("Transport closed"));
+			throw new IOException("Transport closed");
+		}
+		queue.add(pending);
+		return pending.future;
+	}
+
+	/**
+	 * Returns the number of events waiting for a response.
+	 */
+	public int getInFlightCount() {
+		return inFlight.size();
+	}
+
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		writer.interrupt();
+		try {
+			socket.close();
+		} finally {
+			failAll("Transport closed");
+		}
+	}
+
+	private void writeLoop() {
+		List<Pending> batch = new ArrayList<Pending>(maxBatchSize);
+		try {
+			while (!closed) {
+				batch.add(queue.take());
+				queue.drainTo(batch, maxBatchSize - 1);
+				out.writeInt(batch.size());
+				for (Pending pending : batch) {
+					EventCodec.writeEvent(out, pending.requestId, pending.event);
+				}
+				out.flush();
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			if (!closed) {
+				logger.error("Error writing to " + socket.getRemoteSocketAddress(), e);
+			}
+		}
+		for (Pending pending : batch) {
+			complete(pending.requestId, RemoteResult.failed("Could not send action"));
+		}
+		shutdown();
+	}
+
+	private void readLoop() {
+		int[] requestId = new int[1];
+		try {
+			while (!closed) {
+				int count = in.readInt();
+				for (int index = 0; index < count; index++) {
+					RemoteResult result = EventCodec.readResult(in, requestId);
+					complete(requestId[0], result);
+				}
+			}
+		} catch (IOException e) {
+			if (!closed) {
+				logger.error("Error reading from " + socket.getRemoteSocketAddress(), e);
+			}
+		}
+		shutdown();
+	}
+
+	private void complete(int requestId, RemoteResult result) {
+		Pending pending = inFlight.remove(requestId);
+		if (pending == null || !pending.future.complete(result)) {
+			return;
+		}
+		window.release();
+		if (pending.listener != null) {
+			try {
+				pending.listener.resultReceived(pending.event, result);
+			} catch (RuntimeException e) {
+				logger.error("Error delivering the result of " + pending.event.getActionCommand(), e);
+			}
+		}
+	}
+
+	private RemoteFuture failNow(ActionEvent e, RemoteResultListener listener, String message) {
+		RemoteResult result = RemoteResult.failed(message);
+		RemoteFuture future = new RemoteFuture();
+		future.complete(result);
+		if (listener != null) {
+			listener.resultReceived(e, result);
+		}
+		return future;
+	}
+
+	private void failAll(String message) {
+		for (Integer requestId : inFlight.keySet()) {
+			complete(requestId, RemoteResult.failed(message));
+		}
+		Pending pending;
+		while ((pending = queue.poll()) != null) {
+			complete(pending.requestId, RemoteResult.failed(message));
+		}
+	}
+
+	private void shutdown() {
+		try {
+			close();
+		} catch (IOException e) {
+			logger.warn("Error closing " + socket.getRemoteSocketAddress(), e);
+		}
+		failAll("Connection lost");
+	}
+
+	private Thread start(Runnable runnable, String name) {
+		Thread thread = new Thread(runnable, "SocketCommandTransport-" + name + "-" + socket.getLocalPort());
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	private static final class Pending {
+
+		final int requestId;
+
+		final ActionEvent event;
+
+		final RemoteResultListener listener;
+
+		final RemoteFuture future = new RemoteFuture();
+
+		Pending(int requestId, ActionEvent event, RemoteResultListener listener) {
+			this.requestId = requestId;
+			this.event = event;
+			this.listener = listener;
+		}
+	}
+
+}
@@ -0,0 +1,24 @@
+package org.lperilla.framework.core.components;
+
+/**
+ * {@link SuggestionSource} whose queries block where interrupting the thread
+ * has no effect, such as socket I/O. {@link AutoCompleteSupport} calls
+ * {@link #abort(Thread)} before interrupting a superseded query, so the
+ * source can release its connection right away.
+ *
+ * @author lperilla
+ *
+ */
+public interface AbortableSuggestionSource extends SuggestionSource {
+
+	/**
+	 * Aborts the query running on <code>worker</code>. Called on the EDT while
+	 * <code>worker</code> is still inside {@link #suggest(String, int)}, the
+	 * aborted call should end with an exception.
+	 *
+	 * @param worker
+	 *            the thread running the query to abort
+	 */
+	public void abort(Thread worker);
+
+}
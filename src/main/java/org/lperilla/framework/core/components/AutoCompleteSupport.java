@@ -0,0 +1,326 @@
+package org.lperilla.framework.core.components;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import javax.swing.DefaultListModel;
+import javax.swing.JList;
+import javax.swing.JPopupMenu;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * Offers suggestions in a popup below a {@link JLabeledTextField} while the
+ * user types. The suggestions are computed off the EDT once the user stops
+ * typing for {@link #getDelay()} milliseconds, and a new keystroke cancels the
+ * query in progress and discards its result. The support listens to the
+ * document of the field by itself, the live change mode and the change
+ * listeners of the field are left untouched.
+ * <p>
+ * The popup is driven with the arrow keys, <code>Enter</code> accepts the
+ * selected value and <code>Escape</code> closes it.
+ *
+ * @author lperilla
+ *
+ */
+public class AutoCompleteSupport {
+
+	public static final int DEFAULT_DELAY = 150;
+
+	public static final int DEFAULT_MAX_SUGGESTIONS = 10;
+
+	private final JLabeledTextField field;
+
+	private final SuggestionSource source;
+
+	private final DefaultListModel<String> listModel = new DefaultListModel<String>();
+
+	private final JList<String> list = new JList<String>(listModel);
+
+	private final JPopupMenu popup = new JPopupMenu();
+
+	private final Executor executor;
+
+	private final Timer timer = new Timer(DEFAULT_DELAY, new ActionListener() {
+		public void actionPerformed(ActionEvent e) {
+			query();
+		}
+	});
+
+	private final DocumentListener documentListener = new DocumentListener() {
+		public void insertUpdate(DocumentEvent e) {
+			textChanged();
+		}
+
+		public void removeUpdate(DocumentEvent e) {
+			textChanged();
+		}
+
+		public void changedUpdate(DocumentEvent e) {
+		}
+	};
+
+	private Future<?> runningQuery;
+
+	// thread inside source.suggest for runningQuery, guarded by itself
+	private final Thread[] queryThread = new Thread[1];
+
+	// incremented on every edit, results of an older generation are stale
+	private int generation;
+
+	private volatile int maxSuggestions = DEFAULT_MAX_SUGGESTIONS;
+
+	private volatile int minPrefixLength = 1;
+
+	private String acceptedValue;
+
+	private AutoCompleteSupport(JLabeledTextField field, SuggestionSource source, Executor executor) {
+		this.field = field;
+		this.source = source;
+		this.executor = executor;
+		this.timer.setRepeats(false);
+
+		list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		list.setFocusable(false);
+		list.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				accept();
+			}
+		});
+		JScrollPane scrollPane = new JScrollPane(list);
+		scrollPane.setFocusable(false);
+		popup.setFocusable(false);
+		popup.add(scrollPane);
+	}
+
+	/**
+	 * Enables suggestions on <code>field</code>.
+	 *
+	 * @param field
+	 *            the field to complete
+	 * @param source
+	 *            the source of the suggestions
+	 * @param executor
+	 *            the executor running the queries
+	 * @return the installed support
+	 */
+	public static AutoCompleteSupport install(JLabeledTextField field, SuggestionSource source, Executor executor) {
+		if (executor == null) {
+			throw new IllegalArgumentException("executor can not be null");
+		}
+		final AutoCompleteSupport support = new AutoCompleteSupport(field, source, executor);
+		field.getTextField().getDocument().addDocumentListener(support.documentListener);
+		field.addKeyListener(new KeyAdapter() {
+			@Override
+			public void keyPressed(KeyEvent e) {
+				support.keyPressed(e);
+			}
+		});
+		return support;
+	}
+
+	private List<String> process(String text) throws Exception {
+		if (text.length() < minPrefixLength) {
+			return Collections.emptyList();
+		}
+		return source.suggest(text, maxSuggestions);
+	}
+
+	private void done(String text, List<String> result) {
+		if (text.length() < minPrefixLength || text.equals(acceptedValue) || result.isEmpty()) {
+			popup.setVisible(false);
+			return;
+		}
+		listModel.clear();
+		for (String value : result) {
+			listModel.addElement(value);
+		}
+		list.setVisibleRowCount(Math.min(result.size(), maxSuggestions));
+		JTextField textField = field.getTextField();
+		if (textField.isShowing()) {
+			popup.setPopupSize(Math.max(textField.getWidth(), popup.getPreferredSize().width), popup.getPreferredSize().height);
+			popup.show(textField, 0, textField.getHeight());
+		}
+	}
+
+	private void failed(String text, Exception e) {
+		popup.setVisible(false);
+	}
+
+	/**
+	 * Returns the value selected in the popup, or <code>null</code>.
+	 */
+	public String getSelectedSuggestion() {
+		return popup.isVisible() ? list.getSelectedValue() : null;
+	}
+
+	public int getDelay() {
+		return timer.getInitialDelay();
+	}
+
+	/**
+	 * Sets how long the user must stop typing before the suggestions are
+	 * queried, {@link #DEFAULT_DELAY} by default.
+	 *
+	 * @param delay
+	 *            the delay in milliseconds
+	 */
+	public void setDelay(int delay) {
+		timer.setInitialDelay(delay);
+	}
+
+	public int getMaxSuggestions() {
+		return maxSuggestions;
+	}
+
+	public void setMaxSuggestions(int maxSuggestions) {
+		this.maxSuggestions = maxSuggestions;
+	}
+
+	public int getMinPrefixLength() {
+		return minPrefixLength;
+	}
+
+	/**
+	 * Sets the number of characters to type before suggestions are shown.
+	 *
+	 * @param minPrefixLength
+	 *            the minimum length of the prefix
+	 */
+	public void setMinPrefixLength(int minPrefixLength) {
+		this.minPrefixLength = minPrefixLength;
+	}
+
+	private void textChanged() {
+		generation++;
+		if (runningQuery != null) {
+			abortQuery();
+			runningQuery.cancel(true);
+			runningQuery = null;
+		}
+		if (field.getTextField().isFocusOwner()) {
+			timer.restart();
+		} else {
+			// set by the program, not typed by the user
+			timer.stop();
+			popup.setVisible(false);
+		}
+	}
+
+	private void query() {
+		final String text = field.getTextField().getText();
+		final int queryGeneration = generation;
+		FutureTask<Void> future = new FutureTask<Void>(new Runnable() {
+			public void run() {
+				synchronized (queryThread) {
+					queryThread[0] = Thread.currentThread();
+				}
+				try {
+					final List<String> result;
+					try {
+						result = process(text);
+					} finally {
+						synchronized (queryThread) {
+							// a newer query may already run on another thread
+							if (queryThread[0] == Thread.currentThread()) {
+								queryThread[0] = null;
+							}
+						}
+					}
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() {
+							if (queryGeneration == generation) {
+								runningQuery = null;
+								done(text, result);
+							}
+						}
+					});
+				} catch (final Exception e) {
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() {
+							if (queryGeneration == generation) {
+								runningQuery = null;
+								failed(text, e);
+							}
+						}
+					});
+				}
+			}
+		}, null);
+		runningQuery = future;
+		executor.execute(future);
+	}
+
+	/**
+	 * Lets an {@link AbortableSuggestionSource} release the resources of the
+	 * running query, interrupting its thread may not be enough.
+	 */
+	private void abortQuery() {
+		if (source instanceof AbortableSuggestionSource) {
+			synchronized (queryThread) {
+				if (queryThread[0] != null) {
+					((AbortableSuggestionSource) source).abort(queryThread[0]);
+				}
+			}
+		}
+	}
+
+	private void keyPressed(KeyEvent e) {
+		if (!popup.isVisible()) {
+			return;
+		}
+		int size = listModel.getSize();
+		switch (e.getKeyCode()) {
+		case KeyEvent.VK_DOWN:
+			select(Math.min(list.getSelectedIndex() + 1, size - 1));
+			e.consume();
+			break;
+		case KeyEvent.VK_UP:
+			select(Math.max(list.getSelectedIndex() - 1, 0));
+			e.consume();
+			break;
+		case KeyEvent.VK_ENTER:
+			if (list.getSelectedIndex() >= 0) {
+				accept();
+				e.consume();
+			}
+			break;
+		case KeyEvent.VK_ESCAPE:
+			popup.setVisible(false);
+			e.consume();
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void select(int index) {
+		list.setSelectedIndex(index);
+		list.ensureIndexIsVisible(index);
+	}
+
+	private void accept() {
+		String value = list.getSelectedValue();
+		popup.setVisible(false);
+		if (value != null) {
+			acceptedValue = value;
+			field.setText(value);
+		}
+	}
+
+}
@@ -0,0 +1,36 @@
+package org.lperilla.framework.core.components;
+
+import java.util.Set;
+
+import javax.swing.event.ChangeEvent;
+
+/**
+ * Event fired by a {@link FormModel} once per update, carrying the keys of
+ * every field whose value changed.
+ *
+ * @author lperilla
+ *
+ */
+public class FormChangeEvent extends ChangeEvent {
+
+	private static final long serialVersionUID = -2419127353846302113L;
+
+	private final Set<String> changedKeys;
+
+	public FormChangeEvent(FormModel source, Set<String> changedKeys) {
+		super(source);
+		this.changedKeys = changedKeys;
+	}
+
+	/**
+	 * Returns the keys of the fields that changed, in the order they changed.
+	 */
+	public Set<String> getChangedKeys() {
+		return changedKeys;
+	}
+
+	public FormModel getFormModel() {
+		return (FormModel) getSource();
+	}
+
+}
@@ -0,0 +1,275 @@
+package org.lperilla.framework.core.components;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Binds a group of {@link JLabeledTextField}s to keys, so a whole form can be
+ * filled from, or read into, a map or a bean.
+ * <p>
+ * Bulk updates are applied in a single pass on the EDT: fields whose value
+ * does not change are not touched, the change listeners of each field are not
+ * notified and Swing coalesces the layout and repaint requests of all the
+ * fields. Listeners registered with
+ * {@link #addChangeListener(ChangeListener)} receive one
+ * {@link FormChangeEvent} per update, listing every changed key. Edits made by
+ * the user are reported the same way, one key at a time.
+ *
+ * @author lperilla
+ *
+ */
+public class FormModel {
+
+	private final Map<String, JLabeledTextField> fields = new LinkedHashMap<String, JLabeledTextField>();
+
+	private final Map<String, ChangeListener> fieldListeners = new HashMap<String, ChangeListener>();
+
+	private final ArrayList<ChangeListener> changeListeners = new ArrayList<ChangeListener>(3);
+
+	private final Set<String> pendingChanges = new LinkedHashSet<String>();
+
+	private int updateDepth;
+
+	/**
+	 * Binds <code>field</code> to <code>key</code>, replacing the field
+	 * previously bound to it.
+	 *
+	 * @param key
+	 *            the key of the value in maps and the property name in beans
+	 * @param field
+	 *            the field to bind
+	 */
+	public void bind(final String key, JLabeledTextField field) {
+		unbind(key);
+		ChangeListener listener = new ChangeListener() {
+			public void stateChanged(ChangeEvent e) {
+				fieldChanged(key);
+			}
+		};
+		field.addChangeListener(listener);
+		fields.put(key, field);
+		fieldListeners.put(key, listener);
+	}
+
+	/**
+	 * Removes the field bound to <code>key</code>.
+	 *
+	 * @param key
+	 *            the key of the field
+	 * @return the field that was bound, or <code>null</code>
+	 */
+	public JLabeledTextField unbind(String key) {
+		JLabeledTextField field = fields.remove(key);
+		if (field != null) {
+			field.removeChangeListener(fieldListeners.remove(key));
+		}
+		return field;
+	}
+
+	public JLabeledTextField getField(String key) {
+		return fields.get(key);
+	}
+
+	public Set<String> getKeys() {
+		return Collections.unmodifiableSet(fields.keySet());
+	}
+
+	/**
+	 * Suspends the change events until the matching {@link #endUpdate()}.
+	 * Calls may be nested. Must be called on the EDT.
+	 */
+	public void beginUpdate() {
+		updateDepth++;
+	}
+
+	/**
+	 * Ends an update started with {@link #beginUpdate()}, firing a single
+	 * {@link FormChangeEvent} if any field changed.
+	 */
+	public void endUpdate() {
+		if (updateDepth == 0) {
+			throw new IllegalStateException("endUpdate() without beginUpdate()");
+		}
+		if (--updateDepth == 0 && !pendingChanges.isEmpty()) {
+			Set<String> changed = Collections.unmodifiableSet(new LinkedHashSet<String>(pendingChanges));
+			pendingChanges.clear();
+			notifyChangeListeners(changed);
+		}
+	}
+
+	/**
+	 * Sets the value of the fields bound to the keys of <code>values</code>,
+	 * keys without a field are ignored and <code>null</code> values clear the
+	 * field. When called outside the EDT the update is scheduled on it.
+	 *
+	 * @param values
+	 *            the new values
+	 */
+	public void setValues(Map<String, ?> values) {
+		final Map<String, Object> copy = new LinkedHashMap<String, Object>(values);
+		if (SwingUtilities.isEventDispatchThread()) {
+			applyValues(copy);
+		} else {
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run() {
+					applyValues(copy);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Returns the text of every bound field, in binding order.
+	 */
+	public Map<String, String> getValues() {
+		Map<String, String> values = new LinkedHashMap<String, String>(fields.size() * 2);
+		for (Map.Entry<String, JLabeledTextField> entry : fields.entrySet()) {
+			values.put(entry.getKey(), entry.getValue().getText());
+		}
+		return values;
+	}
+
+	/**
+	 * Fills the bound fields with the readable properties of
+	 * <code>bean</code> that have the same name as their keys.
+	 *
+	 * @param bean
+	 *            the bean to read
+	 */
+	public void readFrom(Object bean) {
+		Map<String, Object> values = new LinkedHashMap<String, Object>();
+		for (PropertyDescriptor descriptor : getPropertyDescriptors(bean)) {
+			Method getter = descriptor.getReadMethod();
+			if (getter != null && fields.containsKey(descriptor.getName())) {
+				try {
+					values.put(descriptor.getName(), getter.invoke(bean));
+				} catch (Exception e) {
+					throw new IllegalArgumentException("Can not read property " + descriptor.getName(), e);
+				}
+			}
+		}
+		setValues(values);
+	}
+
+	/**
+	 * Writes the text of the bound fields into the writable properties of
+	 * <code>bean</code> with the same name as their keys. Properties must be
+	 * strings, primitives or have a static <code>valueOf(String)</code>
+	 * method, an empty text sets object properties to <code>null</code>.
+	 *
+	 * @param bean
+	 *            the bean to fill
+	 */
+	public void writeTo(Object bean) {
+		for (PropertyDescriptor descriptor : getPropertyDescriptors(bean)) {
+			Method setter = descriptor.getWriteMethod();
+			JLabeledTextField field = fields.get(descriptor.getName());
+			if (setter != null && field != null) {
+				try {
+					setter.invoke(bean, convert(field.getText(), descriptor.getPropertyType()));
+				} catch (Exception e) {
+					throw new IllegalArgumentException("Can not write property " + descriptor.getName(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds a listener notified with a {@link FormChangeEvent} when the value
+	 * of one or more fields changes.
+	 *
+	 * @param pChangeListener
+	 *            The listener to add
+	 */
+	public void addChangeListener(ChangeListener pChangeListener) {
+		changeListeners.add(pChangeListener);
+	}
+
+	/**
+	 * Removes a change listener.
+	 *
+	 * @param pChangeListener
+	 *            The change listener to remove.
+	 */
+	public void removeChangeListener(ChangeListener pChangeListener) {
+		changeListeners.remove(pChangeListener);
+	}
+
+	protected void notifyChangeListeners(Set<String> changedKeys) {
+		FormChangeEvent ce = new FormChangeEvent(this, changedKeys);
+		for (int index = 0; index < changeListeners.size(); index++) {
+			changeListeners.get(index).stateChanged(ce);
+		}
+	}
+
+	private void applyValues(Map<String, Object> values) {
+		beginUpdate();
+		try {
+			for (Map.Entry<String, Object> entry : values.entrySet()) {
+				JLabeledTextField field = fields.get(entry.getKey());
+				if (field == null) {
+					continue;
+				}
+				String text = entry.getValue() == null ? StringUtils.EMPTY : entry.getValue().toString();
+				if (!text.equals(field.getText())) {
+					field.setTextQuietly(text);
+					pendingChanges.add(entry.getKey());
+				}
+			}
+		} finally {
+			endUpdate();
+		}
+	}
+
+	private void fieldChanged(String key) {
+		pendingChanges.add(key);
+		if (updateDepth == 0) {
+			beginUpdate();
+			endUpdate();
+		}
+	}
+
+	private static PropertyDescriptor[] getPropertyDescriptors(Object bean) {
+		try {
+			BeanInfo beanInfo = Introspector.getBeanInfo(bean.getClass(), Object.class);
+			return beanInfo.getPropertyDescriptors();
+		} catch (IntrospectionException e) {
+			throw new IllegalArgumentException("Can not introspect " + bean.getClass().getName(), e);
+		}
+	}
+
+	private static Object convert(String text, Class<?> type) throws Exception {
+		if (type == String.class || type == Object.class) {
+			return text;
+		}
+		if (StringUtils.isEmpty(text)) {
+			if (type.isPrimitive()) {
+				throw new IllegalArgumentException("Empty value for a " + type.getName() + " property");
+			}
+			return null;
+		}
+		Class<?> wrapper = ClassUtils.primitiveToWrapper(type);
+		if (wrapper == Character.class) {
+			return Character.valueOf(text.charAt(0));
+		}
+		return wrapper.getMethod("valueOf", String.class).invoke(null, text);
+	}
+
+}
@@ -0,0 +1,136 @@
+package org.lperilla.framework.core.components;
+
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.lperilla.framework.core.httpaction.HttpAction;
+
+/**
+ * {@link SuggestionSource} that asks a remote service for the values. The
+ * service is called with a GET to <code>urlPattern</code>, where
+ * <code>{prefix}</code> and <code>{limit}</code> are replaced by the URL
+ * encoded prefix and the limit, and must answer one value per line with the
+ * values starting with the prefix, ignoring case.
+ * <p>
+ * Responses are kept in a small LRU cache. When a cached response for a
+ * shorter prefix was complete (it had fewer values than the limit), longer
+ * prefixes are answered by filtering it instead of calling the service again.
+ * A superseded query aborts its request, releasing the connection.
+ *
+ * @author lperilla
+ *
+ */
+public class HttpSuggestionSource extends HttpAction implements AbortableSuggestionSource {
+
+	public static final int DEFAULT_CACHE_SIZE = 256;
+
+	private final CloseableHttpClient httpClient;
+
+	private final String urlPattern;
+
+	private final Map<String, List<String>> cache;
+
+	// request being executed by each querying thread
+	private final Map<Thread, HttpGet> runningRequests = new ConcurrentHashMap<Thread, HttpGet>();
+
+	public HttpSuggestionSource(CloseableHttpClient httpClient, String urlPattern) {
+		this(httpClient, urlPattern, DEFAULT_CACHE_SIZE);
+	}
+
+	public HttpSuggestionSource(CloseableHttpClient httpClient, String urlPattern, final int cacheSize) {
+		this.httpClient = httpClient;
+		this.urlPattern = urlPattern;
+		this.cache = new LinkedHashMap<String, List<String>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	public List<String> suggest(String prefix, int limit) throws Exception {
+		String cacheKey = limit + ":" + prefix;
+		List<String> cached = lookup(prefix, limit, cacheKey);
+		if (cached != null) {
+			return cached;
+		}
+		String url = urlPattern.replace("{prefix}", URLEncoder.encode(prefix, "UTF-8")).replace("{limit}", String.valueOf(limit));
+		HttpGet request = new HttpGet(url);
+		String body;
+		runningRequests.put(Thread.currentThread(), request);
+		try {
+			body = executeForString(httpClient, request);
+		} finally {
+			runningRequests.remove(Thread.currentThread());
+		}
+
+		List<String> values = new ArrayList<String>();
+		for (String line : body.split("\r?\n")) {
+			if (line.length() > 0 && values.size() < limit) {
+				values.add(line);
+			}
+		}
+		values = Collections.unmodifiableList(values);
+		synchronized (cache) {
+			cache.put(cacheKey, values);
+		}
+		return values;
+	}
+
+	public void abort(Thread worker) {
+		HttpGet request = runningRequests.get(worker);
+		if (request != null) {
+			request.abort();
+		}
+	}
+
+	/**
+	 * Discards every cached response.
+	 */
+	public void clearCache() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+	private List<String> lookup(String prefix, int limit, String cacheKey) {
+		synchronized (cache) {
+			List<String> values = cache.get(cacheKey);
+			if (values != null) {
+				return values;
+			}
+			for (int length = prefix.length() - 1; length >= 0; length--) {
+				List<String> shorter = cache.get(limit + ":" + prefix.substring(0, length));
+				if (shorter != null && shorter.size() < limit) {
+					values = filter(shorter, prefix);
+					cache.put(cacheKey, values);
+					return values;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static List<String> filter(List<String> values, String prefix) {
+		String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+		List<String> result = new ArrayList<String>();
+		for (String value : values) {
+			if (value.toLowerCase(Locale.ROOT).startsWith(lowerPrefix)) {
+				result.add(value);
+			}
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+}
@@ -1,20 +1,29 @@
 package org.lperilla.framework.core.components;
 
 import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
 import java.awt.event.KeyListener;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.border.Border;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -23,7 +32,7 @@ import org.apache.commons.lang3.StringUtils;
  * @author lperilla
  *
  */
-public class JLabeledTextField extends JPanel implements FocusListener {
+public class JLabeledTextField extends JPanel implements FocusListener, DocumentListener {
 
 	private static final long serialVersionUID = 4769808540023635162L;
 
@@ -38,6 +47,17 @@ public class JLabeledTextField extends JPanel implements FocusListener {
 
 	private String oldValue = "";
 
+	private Timer liveChangeTimer;
+
+	private Executor liveChangeExecutor;
+
+	private final ArrayList<TextChangeTask<?>> textChangeTasks = new ArrayList<TextChangeTask<?>>(1);
+
+	private final ArrayList<Future<?>> runningTasks = new ArrayList<Future<?>>(1);
+
+	// incremented on every edit, results of an older generation are stale
+	private int generation;
+
 	/**
 	 * Default constructor, The label and the Text field are left empty.
 	 */
@@ -104,7 +124,11 @@ public class JLabeledTextField extends JPanel implements FocusListener {
 	 *            The focus event that occured.
 	 */
 	public void focusLost(FocusEvent pFocusEvent) {
-		if (!oldValue.equals(getTextField().getText())) {
+		if (liveChangeTimer != null) {
+			// notify the pending edit now, once, instead of when the timer fires
+			liveChangeTimer.stop();
+			fireLiveChange();
+		} else if (!oldValue.equals(getTextField().getText())) {
 			notifyChangeListeners();
 		}
 	}
@@ -116,6 +140,167 @@ public class JLabeledTextField extends JPanel implements FocusListener {
 		oldValue = this.getTextField().getText();
 	}
 
+	/**
+	 * Called when text is inserted in the Text Field while the live change
+	 * mode is enabled.
+	 */
+	public void insertUpdate(DocumentEvent e) {
+		textChanged();
+	}
+
+	/**
+	 * Called when text is removed from the Text Field while the live change
+	 * mode is enabled.
+	 */
+	public void removeUpdate(DocumentEvent e) {
+		textChanged();
+	}
+
+	/**
+	 * Attribute changes do not change the text.
+	 */
+	public void changedUpdate(DocumentEvent e) {
+	}
+
+	/**
+	 * Enables the live change mode: change listeners and
+	 * {@link TextChangeTask}s are notified once the text has not been edited
+	 * for <code>delay</code> milliseconds, instead of waiting for the focus to
+	 * be lost. A negative delay disables the mode.
+	 *
+	 * @param delay
+	 *            the debounce delay in milliseconds
+	 */
+	public void setLiveChangeDelay(int delay) {
+		if (delay < 0) {
+			if (liveChangeTimer != null) {
+				liveChangeTimer.stop();
+				liveChangeTimer = null;
+				this.getTextField().getDocument().removeDocumentListener(this);
+				cancelRunningTasks();
+			}
+			return;
+		}
+		if (liveChangeTimer == null) {
+			liveChangeTimer = new Timer(delay, new ActionListener() {
+				public void actionPerformed(ActionEvent e) {
+					fireLiveChange();
+				}
+			});
+			liveChangeTimer.setRepeats(false);
+			this.getTextField().getDocument().addDocumentListener(this);
+		} else {
+			liveChangeTimer.setInitialDelay(delay);
+		}
+	}
+
+	/**
+	 * Returns the debounce delay of the live change mode, or -1 if it is
+	 * disabled.
+	 */
+	public int getLiveChangeDelay() {
+		return liveChangeTimer == null ? -1 : liveChangeTimer.getInitialDelay();
+	}
+
+	/**
+	 * Sets the executor running {@link TextChangeTask#process(String)}, when
+	 * <code>null</code> the tasks run on the EDT.
+	 *
+	 * @param executor
+	 *            the executor for the tasks
+	 */
+	public void setLiveChangeExecutor(Executor executor) {
+		this.liveChangeExecutor = executor;
+	}
+
+	public Executor getLiveChangeExecutor() {
+		return liveChangeExecutor;
+	}
+
+	/**
+	 * Adds a task run every time the live change mode detects a new text.
+	 *
+	 * @param task
+	 *            The task to add
+	 */
+	public void addTextChangeTask(TextChangeTask<?> task) {
+		textChangeTasks.add(task);
+	}
+
+	/**
+	 * Removes a task added with {@link #addTextChangeTask(TextChangeTask)}.
+	 *
+	 * @param task
+	 *            The task to remove
+	 */
+	public void removeTextChangeTask(TextChangeTask<?> task) {
+		textChangeTasks.remove(task);
+	}
+
+	private void textChanged() {
+		generation++;
+		cancelRunningTasks();
+		liveChangeTimer.restart();
+	}
+
+	private void fireLiveChange() {
+		String text = getTextField().getText();
+		if (oldValue.equals(text)) {
+			return;
+		}
+		// focusLost must not notify this value again
+		oldValue = text;
+		notifyChangeListeners();
+		for (int index = 0; index < textChangeTasks.size(); index++) {
+			Future<?> future = runTextChangeTask(textChangeTasks.get(index), text, generation);
+			if (future != null) {
+				runningTasks.add(future);
+			}
+		}
+	}
+
+	private <T> Future<?> runTextChangeTask(final TextChangeTask<T> task, final String text, final int taskGeneration) {
+		if (liveChangeExecutor == null) {
+			try {
+				task.done(text, task.process(text));
+			} catch (Exception e) {
+				task.failed(text, e);
+			}
+			return null;
+		}
+		FutureTask<Void> future = new FutureTask<Void>(new Runnable() {
+			public void run() {
+				try {
+					final T result = task.process(text);
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() {
+							if (taskGeneration == generation) {
+								task.done(text, result);
+							}
+						}
+					});
+				} catch (final Exception e) {
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() {
+							if (taskGeneration == generation) {
+								task.failed(text, e);
+							}
+						}
+					});
+				}
+			}
+		}, null);
+		liveChangeExecutor.execute(future);
+		return future;
+	}
+
+	private void cancelRunningTasks() {
+		for (int index = 0; index < runningTasks.size(); index++) {
+			runningTasks.get(index).cancel(true);
+		}
+		runningTasks.clear();
+	}
+
 	/**
 	 * Set the text displayed in the label.
 	 *
@@ -136,6 +321,31 @@ public class JLabeledTextField extends JPanel implements FocusListener {
 		this.getTextField().setText(text);
 	}
 
+	/**
+	 * Set the text displayed in the Text Field without notifying the change
+	 * listeners, neither now nor when the focus is lost. Pending
+	 * {@link TextChangeTask}s are cancelled.
+	 *
+	 * @param text
+	 *            The new text to display in the text field.
+	 */
+	void setTextQuietly(String text) {
+		if (liveChangeTimer != null) {
+			this.getTextField().getDocument().removeDocumentListener(this);
+			liveChangeTimer.stop();
+			generation++;
+			cancelRunningTasks();
+		}
+		try {
+			this.getTextField().setText(text);
+		} finally {
+			if (liveChangeTimer != null) {
+				this.getTextField().getDocument().addDocumentListener(this);
+			}
+		}
+		oldValue = this.getTextField().getText();
+	}
+
 	/**
 	 * Returns the text in the Text Field.
 	 *
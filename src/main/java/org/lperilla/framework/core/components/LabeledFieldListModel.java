@@ -0,0 +1,147 @@
+package org.lperilla.framework.core.components;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Lightweight model of a list of labeled values shown by
+ * {@link VirtualLabeledFieldPanel}. Labels and values are kept in plain
+ * arrays, no component exists for a field until it is scrolled into view.
+ * <p>
+ * The panel stores the edits of the user with {@link #setValue(int, String)},
+ * so listeners are notified on every keystroke and should be cheap; use
+ * {@link #setValues(int, String[])} to change many values with a single
+ * notification.
+ *
+ * @author lperilla
+ *
+ */
+public class LabeledFieldListModel {
+
+	private String[] labels;
+
+	private String[] values;
+
+	private int size;
+
+	private final ArrayList<ChangeListener> changeListeners = new ArrayList<ChangeListener>(3);
+
+	public LabeledFieldListModel() {
+		this(16);
+	}
+
+	public LabeledFieldListModel(int initialCapacity) {
+		this.labels = new String[Math.max(initialCapacity, 1)];
+		this.values = new String[labels.length];
+	}
+
+	/**
+	 * Appends a field.
+	 *
+	 * @param label
+	 *            the text of the label
+	 * @param value
+	 *            the initial value, <code>null</code> is stored as empty
+	 * @return the index of the new field
+	 */
+	public int add(String label, String value) {
+		if (size == labels.length) {
+			int capacity = labels.length * 2;
+			labels = Arrays.copyOf(labels, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+		labels[size] = label;
+		values[size] = value == null ? StringUtils.EMPTY : value;
+		size++;
+		notifyChangeListeners();
+		return size - 1;
+	}
+
+	public String getLabel(int index) {
+		checkIndex(index);
+		return labels[index];
+	}
+
+	public String getValue(int index) {
+		checkIndex(index);
+		return values[index];
+	}
+
+	/**
+	 * Sets the value of a field and notifies the listeners if it changed.
+	 *
+	 * @param index
+	 *            the index of the field
+	 * @param value
+	 *            the new value, <code>null</code> is stored as empty
+	 */
+	public void setValue(int index, String value) {
+		checkIndex(index);
+		String newValue = value == null ? StringUtils.EMPTY : value;
+		if (!newValue.equals(values[index])) {
+			values[index] = newValue;
+			notifyChangeListeners();
+		}
+	}
+
+	/**
+	 * Sets several values and notifies the listeners once.
+	 *
+	 * @param from
+	 *            the index of the first field to set
+	 * @param newValues
+	 *            the values to set
+	 */
+	public void setValues(int from, String[] newValues) {
+		if (newValues.length == 0) {
+			return;
+		}
+		checkIndex(from);
+		checkIndex(from + newValues.length - 1);
+		for (int index = 0; index < newValues.length; index++) {
+			values[from + index] = newValues[index] == null ? StringUtils.EMPTY : newValues[index];
+		}
+		notifyChangeListeners();
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes every field.
+	 */
+	public void clear() {
+		Arrays.fill(labels, 0, size, null);
+		Arrays.fill(values, 0, size, null);
+		size = 0;
+		notifyChangeListeners();
+	}
+
+	public void addChangeListener(ChangeListener pChangeListener) {
+		changeListeners.add(pChangeListener);
+	}
+
+	public void removeChangeListener(ChangeListener pChangeListener) {
+		changeListeners.remove(pChangeListener);
+	}
+
+	protected void notifyChangeListeners() {
+		ChangeEvent ce = new ChangeEvent(this);
+		for (int index = 0; index < changeListeners.size(); index++) {
+			changeListeners.get(index).stateChanged(ce);
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+}
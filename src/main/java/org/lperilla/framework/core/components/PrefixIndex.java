@@ -0,0 +1,142 @@
+package org.lperilla.framework.core.components;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Case insensitive, in-memory {@link SuggestionSource} over a fixed set of
+ * values, kept as a sorted array searched with binary search.
+ * <p>
+ * Queries are incremental: while the user keeps extending the same prefix,
+ * the search is narrowed to the range matched by the previous query.
+ *
+ * @author lperilla
+ *
+ */
+public class PrefixIndex implements SuggestionSource {
+
+	private final String[] keys;
+
+	private final String[] values;
+
+	private volatile Range lastRange;
+
+	public PrefixIndex(Collection<String> values) {
+		String[][] entries = new String[values.size()][];
+		int count = 0;
+		for (String value : values) {
+			if (value != null) {
+				entries[count++] = new String[] { normalize(value), value };
+			}
+		}
+		Arrays.sort(entries, 0, count, new Comparator<String[]>() {
+			public int compare(String[] o1, String[] o2) {
+				int result = o1[0].compareTo(o2[0]);
+				return result != 0 ? result : o1[1].compareTo(o2[1]);
+			}
+		});
+		this.keys = new String[count];
+		this.values = new String[count];
+		for (int index = 0; index < count; index++) {
+			this.keys[index] = entries[index][0];
+			this.values[index] = entries[index][1];
+		}
+	}
+
+	public List<String> suggest(String prefix, int limit) {
+		String key = normalize(prefix);
+		Range range = lastRange;
+		int from = 0;
+		int to = keys.length;
+		if (range != null && key.startsWith(range.prefix)) {
+			from = range.from;
+			to = range.to;
+		}
+		from = lowerBound(key, from, to);
+		to = upperBound(key, from, to);
+		lastRange = new Range(key, from, to);
+
+		if (from >= to) {
+			return Collections.emptyList();
+		}
+		int size = Math.min(limit, to - from);
+		List<String> result = new ArrayList<String>(size);
+		for (int index = from; index < from + size; index++) {
+			result.add(values[index]);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of values starting with <code>prefix</code>.
+	 */
+	public int count(String prefix) {
+		String key = normalize(prefix);
+		int from = lowerBound(key, 0, keys.length);
+		return upperBound(key, from, keys.length) - from;
+	}
+
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * First index in [from, to) whose key is not lower than <code>key</code>.
+	 */
+	private int lowerBound(String key, int from, int to) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (keys[middle].compareTo(key) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * First index in [from, to) whose key does not start with
+	 * <code>key</code>, the range must start at the lower bound of the key.
+	 */
+	private int upperBound(String key, int from, int to) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (keys[middle].startsWith(key)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private static String normalize(String value) {
+		return value == null ? "" : value.toLowerCase(Locale.ROOT);
+	}
+
+	private static final class Range {
+
+		final String prefix;
+
+		final int from;
+
+		final int to;
+
+		Range(String prefix, int from, int to) {
+			this.prefix = prefix;
+			this.from = from;
+			this.to = to;
+		}
+	}
+
+}
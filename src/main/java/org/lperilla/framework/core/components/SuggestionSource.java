@@ -0,0 +1,27 @@
+package org.lperilla.framework.core.components;
+
+import java.util.List;
+
+/**
+ * Source of the values offered by {@link AutoCompleteSupport} while the user
+ * types. Called off the EDT, implementations must be thread safe.
+ *
+ * @author lperilla
+ *
+ */
+public interface SuggestionSource {
+
+	/**
+	 * Returns the values starting with <code>prefix</code>.
+	 *
+	 * @param prefix
+	 *            the text typed so far
+	 * @param limit
+	 *            the maximum number of values to return
+	 * @return the matching values, never <code>null</code>
+	 * @throws Exception
+	 *             if the values can not be retrieved
+	 */
+	public List<String> suggest(String prefix, int limit) throws Exception;
+
+}
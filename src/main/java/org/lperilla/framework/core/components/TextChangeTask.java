@@ -0,0 +1,52 @@
+package org.lperilla.framework.core.components;
+
+/**
+ * Work triggered by the live change mode of {@link JLabeledTextField} once the
+ * user stops typing, such as validating the text against a remote service.
+ * <p>
+ * {@link #process(String)} runs on the executor configured with
+ * {@link JLabeledTextField#setLiveChangeExecutor(java.util.concurrent.Executor)}
+ * , or on the EDT if there is none. {@link #done(String, Object)} and
+ * {@link #failed(String, Exception)} always run on the EDT and are only called
+ * if the text was not changed again in the meantime.
+ *
+ * @author lperilla
+ *
+ * @param <T>
+ *            the type of the result
+ */
+public interface TextChangeTask<T> {
+
+	/**
+	 * Computes the result for <code>text</code>. The thread is interrupted if
+	 * the text changes before it completes.
+	 *
+	 * @param text
+	 *            the text of the field
+	 * @return the result to hand to {@link #done(String, Object)}
+	 * @throws Exception
+	 *             if the result can not be computed
+	 */
+	public T process(String text) throws Exception;
+
+	/**
+	 * Publishes the result on the EDT.
+	 *
+	 * @param text
+	 *            the text the result was computed for
+	 * @param result
+	 *            the result of {@link #process(String)}
+	 */
+	public void done(String text, T result);
+
+	/**
+	 * Called on the EDT when {@link #process(String)} fails.
+	 *
+	 * @param text
+	 *            the text the result was computed for
+	 * @param e
+	 *            the failure
+	 */
+	public void failed(String text, Exception e);
+
+}
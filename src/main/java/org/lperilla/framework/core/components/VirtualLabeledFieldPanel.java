@@ -0,0 +1,307 @@
+package org.lperilla.framework.core.components;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.JViewport;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * Scrollable list of labeled text fields for forms with thousands of fields.
+ * Unlike a panel of {@link JLabeledTextField}s, only the rows visible in the
+ * enclosing {@link JViewport} have components: the same {@link JLabel} and
+ * {@link JTextField} instances are rebound to other fields of the
+ * {@link LabeledFieldListModel} as the user scrolls, and every edit is stored
+ * in the model right away. A row keeps showing the same field for as long as
+ * that field stays visible, so scrolling never moves the field being edited
+ * to another row.
+ * <p>
+ * Add the panel to a {@link javax.swing.JScrollPane}.
+ *
+ * @author lperilla
+ *
+ */
+public class VirtualLabeledFieldPanel extends JPanel implements Scrollable {
+
+	private static final long serialVersionUID = -6091467312860337412L;
+
+	private static final int GAP = 5;
+
+	private static final int VISIBLE_ROWS = 20;
+
+	private final LabeledFieldListModel model;
+
+	private final ArrayList<Row> rows = new ArrayList<Row>();
+
+	private final ChangeListener viewportListener = new ChangeListener() {
+		public void stateChanged(ChangeEvent e) {
+			bindVisibleRows();
+		}
+	};
+
+	private final int textFieldSize;
+
+	private final int rowHeight;
+
+	private final int textFieldWidth;
+
+	private int labelWidth = 150;
+
+	private JViewport viewport;
+
+	// size of the model when last laid out, layout is only redone when it changes
+	private int modelSize;
+
+	public VirtualLabeledFieldPanel(LabeledFieldListModel model) {
+		this(model, 20);
+	}
+
+	public VirtualLabeledFieldPanel(LabeledFieldListModel model, int textFieldSize) {
+		super(null);
+		this.model = model;
+		this.textFieldSize = textFieldSize;
+		Dimension fieldSize = createTextField().getPreferredSize();
+		this.rowHeight = fieldSize.height + GAP;
+		this.textFieldWidth = fieldSize.width;
+		this.modelSize = model.size();
+		this.model.addChangeListener(new ChangeListener() {
+			public void stateChanged(ChangeEvent e) {
+				for (int index = 0; index < rows.size(); index++) {
+					rows.get(index).refresh();
+				}
+				if (modelSize != VirtualLabeledFieldPanel.this.model.size()) {
+					modelSize = VirtualLabeledFieldPanel.this.model.size();
+					// fields added or removed are bound once, in doLayout
+					revalidate();
+					repaint();
+				}
+			}
+		});
+	}
+
+	public LabeledFieldListModel getModel() {
+		return model;
+	}
+
+	public int getLabelWidth() {
+		return labelWidth;
+	}
+
+	public void setLabelWidth(int labelWidth) {
+		this.labelWidth = labelWidth;
+		revalidate();
+	}
+
+	/**
+	 * Returns the number of label and text field pairs currently created, at
+	 * most the number of rows that fit in the viewport plus one.
+	 */
+	public int getRowComponentCount() {
+		return rows.size();
+	}
+
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		viewport = (JViewport) SwingUtilities.getAncestorOfClass(JViewport.class, this);
+		if (viewport != null) {
+			viewport.addChangeListener(viewportListener);
+		}
+	}
+
+	@Override
+	public void removeNotify() {
+		if (viewport != null) {
+			viewport.removeChangeListener(viewportListener);
+			viewport = null;
+		}
+		super.removeNotify();
+	}
+
+	@Override
+	public Dimension getPreferredSize() {
+		if (isPreferredSizeSet()) {
+			return super.getPreferredSize();
+		}
+		return new Dimension(labelWidth + textFieldWidth + 3 * GAP, model.size() * rowHeight);
+	}
+
+	@Override
+	public void doLayout() {
+		bindVisibleRows();
+	}
+
+	public Dimension getPreferredScrollableViewportSize() {
+		Dimension size = getPreferredSize();
+		return new Dimension(size.width, Math.min(size.height, VISIBLE_ROWS * rowHeight));
+	}
+
+	public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+		return orientation == SwingConstants.VERTICAL ? rowHeight : GAP;
+	}
+
+	public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+		if (orientation == SwingConstants.VERTICAL) {
+			return Math.max(rowHeight, (visibleRect.height / rowHeight) * rowHeight);
+		}
+		return visibleRect.width;
+	}
+
+	public boolean getScrollableTracksViewportWidth() {
+		return true;
+	}
+
+	public boolean getScrollableTracksViewportHeight() {
+		return false;
+	}
+
+	protected JTextField createTextField() {
+		return new JTextField(textFieldSize);
+	}
+
+	/**
+	 * Binds the pooled rows to the fields intersecting the visible area,
+	 * creating rows only when more of them fit on screen than ever before.
+	 * Rows already showing a visible field keep it, the others are rebound,
+	 * the row owning the focus last.
+	 */
+	private void bindVisibleRows() {
+		Rectangle visible = getVisibleRect();
+		int first = Math.max(0, visible.y / rowHeight);
+		int last = Math.min(model.size() - 1, (visible.y + visible.height - 1) / rowHeight);
+		int needed = Math.max(0, last - first + 1);
+
+		Row[] assigned = new Row[needed];
+		ArrayList<Row> free = new ArrayList<Row>(rows.size());
+		for (int index = 0; index < rows.size(); index++) {
+			Row row = rows.get(index);
+			if (row.index >= first && row.index <= last) {
+				assigned[row.index - first] = row;
+			} else if (row.textField.isFocusOwner()) {
+				// taken from the end, so reused only if no other row is free
+				free.add(0, row);
+			} else {
+				free.add(row);
+			}
+		}
+		int fieldX = labelWidth + 2 * GAP;
+		int fieldWidth = Math.max(0, getWidth() - fieldX - GAP);
+		for (int offset = 0; offset < needed; offset++) {
+			Row row = assigned[offset];
+			if (row == null) {
+				row = free.isEmpty() ? newRow() : free.remove(free.size() - 1);
+			}
+			int fieldIndex = first + offset;
+			int y = fieldIndex * rowHeight;
+			row.bind(fieldIndex);
+			row.label.setBounds(GAP, y, labelWidth, rowHeight - GAP);
+			row.textField.setBounds(fieldX, y, fieldWidth, rowHeight - GAP);
+		}
+		for (int index = 0; index < free.size(); index++) {
+			free.get(index).unbind();
+		}
+	}
+
+	private Row newRow() {
+		Row row = new Row();
+		rows.add(row);
+		add(row.label);
+		add(row.textField);
+		return row;
+	}
+
+	/**
+	 * A label and a text field that can show any field of the model.
+	 */
+	private final class Row implements DocumentListener {
+
+		final JLabel label = new JLabel();
+
+		final JTextField textField = createTextField();
+
+		int index = -1;
+
+		private boolean binding;
+
+		Row() {
+			label.setLabelFor(textField);
+			textField.getDocument().addDocumentListener(this);
+		}
+
+		void bind(int fieldIndex) {
+			label.setVisible(true);
+			textField.setVisible(true);
+			if (fieldIndex == index) {
+				return;
+			}
+			index = fieldIndex;
+			binding = true;
+			try {
+				label.setText(model.getLabel(fieldIndex));
+				textField.setText(model.getValue(fieldIndex));
+				textField.setCaretPosition(0);
+			} finally {
+				binding = false;
+			}
+		}
+
+		/**
+		 * Shows the current label and value of the bound field, unbinding the
+		 * row if the field was removed.
+		 */
+		void refresh() {
+			if (index < 0) {
+				return;
+			}
+			if (index >= model.size()) {
+				unbind();
+				return;
+			}
+			binding = true;
+			try {
+				label.setText(model.getLabel(index));
+				String value = model.getValue(index);
+				if (!value.equals(textField.getText())) {
+					textField.setText(value);
+				}
+			} finally {
+				binding = false;
+			}
+		}
+
+		void unbind() {
+			index = -1;
+			label.setVisible(false);
+			textField.setVisible(false);
+		}
+
+		public void insertUpdate(DocumentEvent e) {
+			store();
+		}
+
+		public void removeUpdate(DocumentEvent e) {
+			store();
+		}
+
+		public void changedUpdate(DocumentEvent e) {
+		}
+
+		private void store() {
+			if (!binding && index >= 0) {
+				// the refresh this triggers finds the row already up to date
+				model.setValue(index, textField.getText());
+			}
+		}
+	}
+
+}
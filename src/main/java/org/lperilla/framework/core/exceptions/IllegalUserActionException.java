@@ -1,16 +1,85 @@
-
 package org.lperilla.framework.core.exceptions;
 
+/**
+ * Thrown by a {@link org.lperilla.framework.core.action.Command} to reject an
+ * action of the user.
+ * <p>
+ * Rejections raised on every keystroke or click should use
+ * {@link #stackless(String, String)}: the stack trace is not filled, which is
+ * the expensive part of creating an exception, and the error code lets the
+ * {@link org.lperilla.framework.core.action.UserActionErrorHandler} account
+ * for the rejection without building messages. Stackless instances without a
+ * cause may also be created once and thrown many times.
+ */
 public class IllegalUserActionException extends Exception {
 
 	private static final long serialVersionUID = 240L;
 
+	private final String errorCode;
+
 	public IllegalUserActionException(String name) {
 		super(name);
+		this.errorCode = null;
 	}
 
 	public IllegalUserActionException(String name, Throwable t) {
 		super(name, t);
+		this.errorCode = null;
+	}
+
+	/**
+	 * @param errorCode
+	 *            the code identifying the kind of rejection, may be
+	 *            <code>null</code>
+	 * @param name
+	 *            the message
+	 * @param t
+	 *            the cause, may be <code>null</code>
+	 * @param writableStackTrace
+	 *            <code>false</code> to skip filling the stack trace
+	 */
+	public IllegalUserActionException(String errorCode, String name, Throwable t, boolean writableStackTrace) {
+		super(name, t, false, writableStackTrace);
+		this.errorCode = errorCode;
+	}
+
+	/**
+	 * Creates a rejection without stack trace.
+	 *
+	 * @param errorCode
+	 *            the code identifying the kind of rejection
+	 * @param name
+	 *            the message
+	 * @return the new exception
+	 */
+	public static IllegalUserActionException stackless(String errorCode, String name) {
+		return new IllegalUserActionException(errorCode, name, null, false);
+	}
+
+	/**
+	 * Returns the code identifying the kind of rejection, or <code>null</code>.
+	 */
+	public String getErrorCode() {
+		return errorCode;
+	}
+
+	/**
+	 * Returns the message followed by the message of the cause, if any.
+	 */
+	public String getFullMessage() {
+		String msg = getMessage();
+		if (msg == null) {
+			msg = toString();
+		}
+		Throwable t = getCause();
+		if (t != null) {
+			String cause = t.getMessage();
+			if (cause == null) {
+				cause = t.toString();
+			}
+			msg = msg + "\n" + cause;
+		}
+		return msg;
 	}
 
 }
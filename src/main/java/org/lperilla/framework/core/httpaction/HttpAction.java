@@ -37,6 +37,37 @@ public class HttpAction {
 		}
 	}
 
+	/**
+	 * Executes the request and returns the body of the response.
+	 *
+	 * @param httpClient
+	 *            the client used to execute the request
+	 * @param request
+	 *            the request to execute
+	 * @return the body of the response, decoded as UTF-8 unless the response
+	 *         declares another charset
+	 * @throws Exception
+	 *             if the request fails or the status code is not 2xx
+	 */
+	protected String executeForString(CloseableHttpClient httpClient, HttpUriRequest request) throws Exception {
+		CloseableHttpResponse response = null;
+		try {
+			response = httpClient.execute(request);
+			int statusCode = response.getStatusLine().getStatusCode();
+			HttpEntity entity = response.getEntity();
+			String strResponse = entity == null ? "" : EntityUtils.toString(entity, "UTF-8");
+			if (statusCode < 200 || statusCode >= 300) {
+				throw new Exception("Http status code " + statusCode + " for " + request.getURI());
+			}
+			return strResponse;
+		} catch (IOException ex) {
+			throw new Exception(ex);
+		} finally {
+			if (response != null)
+				response.close();
+		}
+	}
+
 	protected void consumeResponse(CloseableHttpResponse response) throws Exception {
 		try {
 			HttpEntity entity = response.getEntity();
@@ -1,10 +1,27 @@
 package org.lperilla.framework.core.utils;
 
 import java.awt.Component;
-import java.awt.Dimension;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.Insets;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 public final class ComponentUtil {
 
+	/**
+	 * Screen assumed when running headless, there is no real screen to query.
+	 */
+	private static final Rectangle HEADLESS_SCREEN = new Rectangle(0, 0, 1024, 768);
+
+	// usable bounds of each screen, keyed by device id
+	private static volatile Map<String, Rectangle> screenBounds;
+
 	/**
 	 * Use this static method if you want to center a component over another
 	 * component.
@@ -15,12 +32,28 @@ public final class ComponentUtil {
 	 *            the component you want to center
 	 */
 	public static void centerComponentInComponent(Component parent, Component toBeCentered) {
-		toBeCentered.setLocation(parent.getX() + (parent.getWidth() - toBeCentered.getWidth()) / 2, parent.getY() + (parent.getHeight() - toBeCentered.getHeight()) / 2);
+		locateInComponent(parent, toBeCentered);
 
 		toBeCentered.validate();
 		toBeCentered.repaint();
 	}
 
+	/**
+	 * Centers several components over another component. Every component is
+	 * moved before any of them is validated and repainted, once each.
+	 *
+	 * @param parent
+	 *            the component you want to use to place them on
+	 * @param toBeCentered
+	 *            the components you want to center
+	 */
+	public static void centerComponentsInComponent(Component parent, Collection<? extends Component> toBeCentered) {
+		for (Component component : toBeCentered) {
+			locateInComponent(parent, component);
+		}
+		validateAndRepaint(toBeCentered);
+	}
+
 	/**
 	 * Use this static method if you want to center a component in Window.
 	 *
@@ -28,13 +61,33 @@ public final class ComponentUtil {
 	 *            the component you want to center in window
 	 */
 	public static void centerComponentInWindow(Component component) {
-		Dimension dimension = component.getToolkit().getScreenSize();
-
-		component.setLocation((int) ((dimension.getWidth() - component.getWidth()) / 2), (int) ((dimension.getHeight() - component.getHeight()) / 2));
+		locateInWindow(component);
 		component.validate();
 		component.repaint();
 	}
 
+	/**
+	 * Centers several components on the screen each one is shown on. Every
+	 * component is moved before any of them is validated and repainted, once
+	 * each.
+	 *
+	 * @param components
+	 *            the components you want to center in window
+	 */
+	public static void centerComponentsInWindow(Collection<? extends Component> components) {
+		for (Component component : components) {
+			locateInWindow(component);
+		}
+		validateAndRepaint(components);
+	}
+
+	/**
+	 * @see #centerComponentsInWindow(Collection)
+	 */
+	public static void centerComponentsInWindow(Component... components) {
+		centerComponentsInWindow(Arrays.asList(components));
+	}
+
 	/**
 	 * Use this static method if you want to center and set its position
 	 * compared to the size of the current users screen size. Valid percent is
@@ -57,11 +110,78 @@ public final class ComponentUtil {
 			return;
 		}
 		double percent = percentOfScreen / 100.d;
-		Dimension dimension = component.getToolkit().getScreenSize();
-		component.setSize((int) (dimension.getWidth() * percent), (int) (dimension.getHeight() * percent));
+		Rectangle screen = getScreenBounds(component);
+		component.setSize((int) (screen.getWidth() * percent), (int) (screen.getHeight() * percent));
 		centerComponentInWindow(component);
 	}
 
+	/**
+	 * Returns the usable bounds, without task bars and docks, of the screen
+	 * the component is shown on, or of the default screen if it is not shown.
+	 * The geometry is cached until {@link #refreshScreenGeometry()}; screens
+	 * attached later are read on first use.
+	 *
+	 * @param component
+	 *            the component, may be <code>null</code>
+	 * @return a copy of the bounds of the screen
+	 */
+	public static Rectangle getScreenBounds(Component component) {
+		if (GraphicsEnvironment.isHeadless()) {
+			return new Rectangle(HEADLESS_SCREEN);
+		}
+		GraphicsConfiguration configuration = component == null ? null : component.getGraphicsConfiguration();
+		GraphicsDevice device = configuration == null ? GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice() : configuration.getDevice();
+		Map<String, Rectangle> bounds = screenBounds;
+		if (bounds == null || !bounds.containsKey(device.getIDstring())) {
+			// first use, or a screen attached after the cache was built
+			bounds = loadScreenBounds();
+			screenBounds = bounds;
+		}
+		Rectangle screen = bounds.get(device.getIDstring());
+		return screen == null ? device.getDefaultConfiguration().getBounds() : new Rectangle(screen);
+	}
+
+	/**
+	 * Discards the cached screen geometry, it is read again on next use. AWT
+	 * has no public event for resolution or task bar changes of a screen, so
+	 * applications must call this method when they learn about one, for
+	 * example from a platform hook or a "refresh" user action.
+	 */
+	public static void refreshScreenGeometry() {
+		screenBounds = null;
+	}
+
+	private static Map<String, Rectangle> loadScreenBounds() {
+		Toolkit toolkit = Toolkit.getDefaultToolkit();
+		GraphicsDevice[] devices = GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices();
+		Map<String, Rectangle> bounds = new HashMap<String, Rectangle>(devices.length * 2);
+		for (GraphicsDevice device : devices) {
+			GraphicsConfiguration configuration = device.getDefaultConfiguration();
+			Rectangle screen = configuration.getBounds();
+			Insets insets = toolkit.getScreenInsets(configuration);
+			bounds.put(device.getIDstring(), new Rectangle(screen.x + insets.left, screen.y + insets.top, screen.width - insets.left - insets.right, screen.height - insets.top - insets.bottom));
+		}
+		return bounds;
+	}
+
+	private static void locateInComponent(Component parent, Component toBeCentered) {
+		toBeCentered.setLocation(parent.getX() + (parent.getWidth() - toBeCentered.getWidth()) / 2, parent.getY() + (parent.getHeight() - toBeCentered.getHeight()) / 2);
+	}
+
+	private static void locateInWindow(Component component) {
+		Rectangle screen = getScreenBounds(component);
+		component.setLocation(screen.x + (screen.width - component.getWidth()) / 2, screen.y + (screen.height - component.getHeight()) / 2);
+	}
+
+	private static void validateAndRepaint(Collection<? extends Component> components) {
+		for (Component component : components) {
+			component.validate();
+		}
+		for (Component component : components) {
+			component.repaint();
+		}
+	}
+
 	/**
 	 * Private constructor to prevent instantiation.
 	 */